@@ -0,0 +1,57 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Générateur de listes de courses pour les benchmarks.
+ * Les données sont déterministes pour une taille donnée, afin de pouvoir comparer les exécutions.
+ */
+public final class BenchmarkData {
+    private static final String[] CATEGORIES = {
+            "default", "Fruits", "Légumes", "Crèmerie", "Boucherie", "Épicerie", "Boissons", "Surgelés",
+            "Hygiène", "Entretien", "Boulangerie", "Poissonnerie"
+    };
+    private static final long SEED = 42L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Génère une liste d'articles aux noms uniques.
+     *
+     * @param size le nombre d'articles
+     * @return la liste générée
+     */
+    public static List<GroceryItem> generateItems(int size) {
+        Random random = new Random(SEED);
+        List<GroceryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new GroceryItem(itemName(i), 1 + random.nextInt(50), CATEGORIES[random.nextInt(CATEGORIES.length)]));
+        }
+        return items;
+    }
+
+    /**
+     * Retourne le nom de l'article d'indice donné dans les listes générées.
+     *
+     * @param index l'indice de l'article
+     * @return le nom de l'article
+     */
+    public static String itemName(int index) {
+        return "Article " + index;
+    }
+
+    /**
+     * Retourne une catégorie parmi celles utilisées par le générateur.
+     *
+     * @param index un indice quelconque
+     * @return une catégorie
+     */
+    public static String category(int index) {
+        return CATEGORIES[Math.floorMod(index, CATEGORIES.length)];
+    }
+}
@@ -0,0 +1,67 @@
+package com.fges.benchmark;
+
+import com.fges.model.CategoryManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de l'indexation des articles par catégorie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private CategoryManager categoryManager;
+    private int cursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        categoryManager = new CategoryManager();
+        for (int i = 0; i < size; i++) {
+            categoryManager.addItemToCategory(BenchmarkData.itemName(i), BenchmarkData.category(i));
+        }
+        cursor = 0;
+    }
+
+    /**
+     * Déplacement d'un article existant vers une autre catégorie.
+     */
+    @Benchmark
+    public void addItemToCategory() {
+        int index = cursor;
+        cursor = (cursor + 1) % size;
+        categoryManager.addItemToCategory(BenchmarkData.itemName(index), BenchmarkData.category(index + cursor));
+    }
+
+    /**
+     * Suppression d'un article, suivie de sa réinsertion pour conserver la taille de l'index.
+     */
+    @Benchmark
+    public void removeItem() {
+        int index = cursor;
+        cursor = (cursor + 1) % size;
+        String name = BenchmarkData.itemName(index);
+        categoryManager.removeItem(name);
+        categoryManager.addItemToCategory(name, BenchmarkData.category(index));
+    }
+}
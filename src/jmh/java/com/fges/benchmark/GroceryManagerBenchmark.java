@@ -0,0 +1,171 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryManager;
+import com.fges.model.ItemChange;
+import com.fges.model.ItemStoreFactory;
+import com.fges.storage.IncrementalStorageManager;
+import com.fges.storage.StreamingJsonStorageManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks des opérations de GroceryManager sur une liste déjà chargée.
+ * <p>
+ * Les benchmarks qui modifient la liste la remettent périodiquement dans son état
+ * initial et vident le suivi des modifications, pour mesurer toujours une liste de
+ * {@code size} articles plutôt qu'un état qui grossit au fil de l'itération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroceryManagerBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"map", "columnar", "offheap"})
+    public String store;
+
+    /** Nombre de modifications entre deux remises à zéro de l'état. */
+    private static final int RESET_INTERVAL = 1024;
+
+    private Path file;
+    private GroceryManager groceryManager;
+    private int cursor;
+    private int nextNewItem;
+    private int pendingChanges;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        // Charger la liste comme le fait la CLI, pour partir d'un état réaliste
+        StreamingJsonStorageManager storageManager = new StreamingJsonStorageManager();
+        file = Files.createTempFile("grocery-benchmark", ".json");
+        storageManager.saveGroceryList(BenchmarkData.generateItems(size), file.toString());
+        groceryManager = new GroceryManager(new DiscardingStorageManager(storageManager),
+                ItemStoreFactory.createItemStore(store));
+        groceryManager.loadGroceryList(file.toString());
+        cursor = 0;
+        nextNewItem = size;
+        pendingChanges = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        groceryManager = null;
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Ajout de quantité à un article existant.
+     */
+    @Benchmark
+    public void addExistingItem() throws IOException {
+        groceryManager.addItem(BenchmarkData.itemName(nextIndex()), 1, null);
+        afterChange();
+    }
+
+    /**
+     * Ajout d'un nouvel article. Tous les {@link #RESET_INTERVAL} ajouts, les articles
+     * ajoutés sont retirés : le coût mesuré inclut donc, amorti, celui de leur suppression.
+     */
+    @Benchmark
+    public void addNewItem() throws Exception {
+        int index = nextNewItem++;
+        groceryManager.addItem(BenchmarkData.itemName(index), 1, BenchmarkData.category(index));
+        if (nextNewItem - size == RESET_INTERVAL) {
+            for (int added = size; added < nextNewItem; added++) {
+                groceryManager.removeItem(BenchmarkData.itemName(added));
+            }
+            nextNewItem = size;
+        }
+        afterChange();
+    }
+
+    /**
+     * Suppression d'un article existant, suivie de sa réinsertion pour conserver la taille de la liste.
+     */
+    @Benchmark
+    public void removeItem() throws Exception {
+        int index = nextIndex();
+        String name = BenchmarkData.itemName(index);
+        groceryManager.removeItem(name);
+        groceryManager.addItem(name, 1, BenchmarkData.category(index));
+        afterChange();
+    }
+
+    @Benchmark
+    public Map<String, List<String>> getGroceryListByCategory() {
+        return groceryManager.getGroceryListByCategory();
+    }
+
+    @Benchmark
+    public List<GroceryItem> getItems() {
+        return groceryManager.getItems();
+    }
+
+    private int nextIndex() {
+        int index = cursor;
+        cursor = (cursor + 1) % size;
+        return index;
+    }
+
+    /**
+     * Vide périodiquement le suivi des modifications par une sauvegarde qui n'écrit rien,
+     * comme le ferait le flush différé de la CLI.
+     */
+    private void afterChange() throws IOException {
+        if (++pendingChanges == RESET_INTERVAL) {
+            groceryManager.saveGroceryList(file.toString());
+            pendingChanges = 0;
+        }
+    }
+
+    /**
+     * Stockage qui charge la liste depuis le fichier mais ignore les sauvegardes, pour ne
+     * mesurer que le coût des opérations en mémoire.
+     */
+    private static final class DiscardingStorageManager implements IncrementalStorageManager {
+        private final StreamingJsonStorageManager delegate;
+
+        DiscardingStorageManager(StreamingJsonStorageManager delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+            return delegate.loadGroceryList(fileName);
+        }
+
+        @Override
+        public void saveGroceryList(Collection<GroceryItem> items, String fileName) {
+        }
+
+        @Override
+        public void appendChanges(List<ItemChange> changes, String fileName) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.fges.benchmark;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.BinaryStorageManager;
+import com.fges.storage.CsvStorageManager;
+import com.fges.storage.JsonStorageManager;
+import com.fges.storage.StorageManager;
+import com.fges.storage.StreamingJsonStorageManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks du chargement et de la sauvegarde des listes de courses pour chaque format de stockage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageBenchmark {
+
+    @Param({"json", "json-streaming", "csv", "bin"})
+    public String storage;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private StorageManager storageManager;
+    private List<GroceryItem> items;
+    private Path directory;
+    private String loadFile;
+    private String saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storageManager = switch (storage) {
+            case "json" -> new JsonStorageManager();
+            case "json-streaming" -> new StreamingJsonStorageManager();
+            case "csv" -> new CsvStorageManager();
+            case "bin" -> new BinaryStorageManager();
+            default -> throw new IllegalArgumentException("Stockage inconnu : " + storage);
+        };
+
+        items = BenchmarkData.generateItems(size);
+        directory = Files.createTempDirectory("grocery-benchmark");
+        loadFile = directory.resolve("load." + storage).toString();
+        saveFile = directory.resolve("save." + storage).toString();
+        storageManager.saveGroceryList(items, loadFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Path.of(loadFile));
+        Files.deleteIfExists(Path.of(saveFile));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public List<GroceryItem> load() throws IOException {
+        return storageManager.loadGroceryList(loadFile);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        storageManager.saveGroceryList(items, saveFile);
+    }
+}
@@ -1,19 +1,33 @@
 package com.fges;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.List;
 import java.util.Optional;
 
 import com.fges.commands.AddCommand;
+import com.fges.commands.BatchCommand;
+import com.fges.commands.DaemonCommand;
 import com.fges.commands.InfoCommand;
 import com.fges.commands.ListCommand;
 import com.fges.commands.RemoveCommand;
+import com.fges.commands.StatsCommand;
 import com.fges.commands.WebCommand;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.MetricsRegistry;
+import com.fges.metrics.MetricsServer;
 import com.fges.model.CommandOptions;
 import com.fges.model.GroceryManager;
+import com.fges.model.ItemStoreFactory;
+import com.fges.storage.DurabilityLevel;
+import com.fges.storage.FileLockManager;
 import com.fges.storage.StorageManager;
 import com.fges.storage.StorageManagerFactory;
+import com.fges.util.ThreadModel;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -26,6 +40,7 @@ import org.apache.commons.cli.ParseException;
  * Parse les arguments et délègue l'exécution aux commandes appropriées.
  */
 public class CLIHandler {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
     /**
      * Point d'entrée principal pour l'exécution des commandes.
@@ -53,7 +68,13 @@ public class CLIHandler {
         String commandName = positionalArgs.get(0);
         
         // Prepare CommandOptions
-        CommandOptions options = parseCommandOptions(cmd, positionalArgs);
+        CommandOptions options;
+        try {
+            options = parseCommandOptions(cmd, positionalArgs);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            return 1;
+        }
         
         // If category command was used, update positional args and command name
         if ("category".equals(commandName) && positionalArgs.size() > 1) {
@@ -77,11 +98,20 @@ public class CLIHandler {
         }
 
         // Execute command with appropriate managers
-        return executeCommand(commandName, positionalArgs, options);
+        FileLockManager.registerMetrics(MetricsRegistry.getDefault());
+        int status = executeCommand(commandName, positionalArgs, options);
+        
+        // Dump the collected metrics on standard error, keeping standard output for the result
+        if (options.isMetrics()) {
+            writeMetrics();
+        }
+        return status;
     }
 
     /**
      * Parse command line options and build CommandOptions object
+     *
+     * @throws IllegalArgumentException if a numeric option is invalid or out of range
      */
     private static CommandOptions parseCommandOptions(CommandLine cmd, List<String> positionalArgs) {
         CommandOptions.Builder optionsBuilder = new CommandOptions.Builder();
@@ -93,12 +123,66 @@ public class CLIHandler {
         
         // Add format if present
         String format = cmd.getOptionValue("format", "json");
-        if (!format.equals("json") && !format.equals("csv")) {
-            System.err.println("Format non supporté. Utilisez 'json' ou 'csv'.");
+        if (!format.equals("json") && !format.equals("csv") && !format.equals("journal")
+                && !format.equals("bin")) {
+            System.err.println("Format non supporté. Utilisez 'json', 'csv', 'journal' ou 'bin'.");
             format = "json"; // Default to JSON for invalid formats
         }
         optionsBuilder.format(format);
         
+        // Add deferred save settings if present
+        if (cmd.hasOption("flush-delay")) {
+            optionsBuilder.flushDelayMillis(parseLongOption(cmd, "flush-delay", 0, Long.MAX_VALUE,
+                    "Délai de sauvegarde différée invalide : "
+                            + "un nombre de millisecondes positif ou nul est attendu."));
+        }
+        if (cmd.hasOption("flush-max-ops")) {
+            optionsBuilder.flushMaxPendingOps((int) parseLongOption(cmd, "flush-max-ops", 1, Integer.MAX_VALUE,
+                    "Nombre de modifications avant sauvegarde invalide : un entier strictement positif est attendu."));
+        }
+        
+        // Add durability level if present
+        if (cmd.hasOption("durability")) {
+            try {
+                optionsBuilder.durability(DurabilityLevel.valueOf(cmd.getOptionValue("durability").toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Niveau de durabilité non supporté. Utilisez 'none', 'data' ou 'full'.");
+            }
+        }
+        
+        // Add lock timeout if present
+        if (cmd.hasOption("lock-timeout")) {
+            optionsBuilder.lockTimeoutMillis(parseLongOption(cmd, "lock-timeout", 0, Long.MAX_VALUE,
+                    "Délai de verrouillage invalide : un nombre de millisecondes positif ou nul est attendu."));
+        }
+        
+        // Add item store if present
+        String store = cmd.getOptionValue("store", "map");
+        if (!store.equals("map") && !store.equals("columnar") && !store.equals("offheap")) {
+            System.err.println("Stockage non supporté. Utilisez 'map', 'columnar' ou 'offheap'.");
+            store = "map"; // Default to the map store for invalid values
+        }
+        optionsBuilder.store(store);
+        
+        // Add server thread model if present; an explicit --web-threads wins over --virtual
+        if (cmd.hasOption("virtual")) {
+            optionsBuilder.webThreads(ThreadModel.VIRTUAL);
+        }
+        if (cmd.hasOption("web-threads")) {
+            try {
+                optionsBuilder.webThreads(ThreadModel.valueOf(cmd.getOptionValue("web-threads").toUpperCase()));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Modèle de threads non supporté. Utilisez 'virtual' ou 'platform'.");
+            }
+        }
+        
+        // Add metrics options if present
+        optionsBuilder.metrics(cmd.hasOption("metrics"));
+        if (cmd.hasOption("metrics-port")) {
+            optionsBuilder.metricsPort((int) parseLongOption(cmd, "metrics-port", 1, 65535,
+                    "Port des métriques invalide : un port entre 1 et 65535 est attendu."));
+        }
+        
         // Add category if present from --category option
         if (cmd.hasOption("category")) {
             optionsBuilder.category(cmd.getOptionValue("category"));
@@ -113,6 +197,23 @@ public class CLIHandler {
         return optionsBuilder.build();
     }
     
+    /**
+     * Parse an integer option and check that it lies within [min, max]
+     *
+     * @throws IllegalArgumentException with the given message if the value is invalid
+     */
+    private static long parseLongOption(CommandLine cmd, String name, long min, long max, String errorMessage) {
+        try {
+            long value = Long.parseLong(cmd.getOptionValue(name).trim());
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // Signalé ci-dessous, comme une valeur hors limites
+        }
+        throw new IllegalArgumentException(errorMessage);
+    }
+    
     /**
      * Prepare the file for operations if needed
      */
@@ -153,14 +254,48 @@ public class CLIHandler {
             return 1;
         }
         
+        // Coordinate with other processes using the same file
+        FileLockManager.ListLock listLock = null;
+        if (!commandRequiresNoFile(commandName) && options.getFileName() != null) {
+            try {
+                listLock = acquireListLock(commandName, options);
+            } catch (IOException e) {
+                System.err.println("Erreur lors du verrouillage : " + e.getMessage());
+                return 1;
+            }
+        }
+        
+        long start = System.nanoTime();
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        try {
+            int status = runCommand(commandName, command.get(), positionalArgs, options, listLock);
+            if (status != 0) {
+                registry.counter("grocery_command_errors_total", "Commandes terminées en erreur",
+                        "command", commandName).increment();
+            }
+            return status;
+        } finally {
+            releaseListLock(listLock);
+            LatencyHistogram latency = registry.histogram("grocery_command_duration_seconds",
+                    "Durée des commandes, verrou du fichier compris", "command", commandName);
+            latency.recordSince(start);
+        }
+    }
+    
+    /**
+     * Load the list, execute the command and save, while holding the list lock
+     */
+    private static int runCommand(String commandName, Command command, List<String> positionalArgs,
+                                  CommandOptions options, FileLockManager.ListLock listLock) {
         // Initialize managers only if required
         StorageManager storageManager = null;
         GroceryManager groceryManager = null;
         
         if (!commandRequiresNoFile(commandName)) {
             try {
-                storageManager = StorageManagerFactory.createStorageManager(options.getFormat());
-                groceryManager = new GroceryManager(storageManager);
+                storageManager = StorageManagerFactory.createStorageManager(options.getFormat(), options.getDurability());
+                groceryManager = new GroceryManager(storageManager,
+                        ItemStoreFactory.createItemStore(options.getStore()));
                 
                 if (options.getFileName() != null) {
                     try {
@@ -176,22 +311,46 @@ public class CLIHandler {
             }
         }
         
+        // Servers lock the file for each save, not for their whole lifetime;
+        // each save first merges what other processes wrote in the meantime
+        if (commandRunsInBackground(commandName)) {
+            releaseListLock(listLock);
+        }
+        
+        // Servers expose their metrics alongside, on a local port
+        MetricsServer metricsServer = null;
+        if (commandRunsInBackground(commandName) && options.getMetricsPort() > 0) {
+            try {
+                metricsServer = new MetricsServer(options.getMetricsPort(), MetricsRegistry.getDefault(),
+                        options.getWebThreads().newTaskExecutor("metrics-http"));
+                System.err.println("Métriques exposées sur http://localhost:" + metricsServer.getPort()
+                        + MetricsServer.PATH);
+            } catch (IOException e) {
+                System.err.println("Erreur lors du démarrage du serveur de métriques : " + e.getMessage());
+                return 1;
+            }
+        }
+        
         // Execute the command
         try {
-            String result = command.get().execute(positionalArgs, groceryManager, options);
-            System.out.println(result);
+            if (command instanceof StreamingCommand streamingCommand) {
+                writeToStandardOutput(streamingCommand, positionalArgs, groceryManager, options);
+            } else {
+                String result = command.execute(positionalArgs, groceryManager, options);
+                System.out.println(result);
+            }
             
             // Save if needed
             if (commandRequiresSaving(commandName) && groceryManager != null && options.getFileName() != null) {
                 groceryManager.saveGroceryList(options.getFileName());
             }
             
-            // Handle web command special case
-            if ("web".equals(commandName)) {
+            // Web server and daemon keep running until the JVM is stopped
+            if (commandRunsInBackground(commandName)) {
                 try {
                     Thread.currentThread().join();
                 } catch (InterruptedException e) {
-                    System.err.println("Serveur web interrompu: " + e.getMessage());
+                    System.err.println("Serveur interrompu: " + e.getMessage());
                 }
             }
             
@@ -199,6 +358,92 @@ public class CLIHandler {
         } catch (Exception e) {
             System.err.println("Erreur lors de l'exécution de la commande : " + e.getMessage());
             return 1;
+        } finally {
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+        }
+    }
+
+    /**
+     * Écrit les métriques collectées sur la sortie d'erreur, au format texte de Prometheus.
+     */
+    private static void writeMetrics() {
+        Writer err = new OutputStreamWriter(System.err, consoleCharset("stderr.encoding"));
+        try {
+            MetricsRegistry.getDefault().writePrometheus(err);
+            err.flush();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de l'écriture des métriques : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exécute une commande en écrivant son résultat au fil de l'eau sur la sortie standard,
+     * à travers un tampon, suivi d'un saut de ligne comme pour les autres commandes.
+     *
+     * @param command la commande à exécuter
+     * @param positionalArgs les arguments de la commande
+     * @param groceryManager le gestionnaire de liste de courses
+     * @param options les options de commande
+     * @throws Exception si une erreur survient lors de l'exécution
+     */
+    private static void writeToStandardOutput(StreamingCommand command, List<String> positionalArgs,
+                                              GroceryManager groceryManager, CommandOptions options) throws Exception {
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, consoleCharset("stdout.encoding")), OUTPUT_BUFFER_SIZE);
+        try {
+            command.execute(positionalArgs, groceryManager, options, out);
+            out.write(System.lineSeparator());
+        } finally {
+            // Ne pas fermer System.out : seulement vider le tampon
+            out.flush();
+        }
+    }
+
+    /**
+     * Retourne l'encodage d'une sortie de la console, celui qu'utilise System.out ou System.err
+     * ("stdout.encoding" ou "stderr.encoding").
+     */
+    private static Charset consoleCharset(String encodingProperty) {
+        String encoding = System.getProperty(encodingProperty);
+        return encoding != null && Charset.isSupported(encoding) ? Charset.forName(encoding) : Charset.defaultCharset();
+    }
+
+    /**
+     * Acquiert le verrou de la liste : partagé pour les lectures et le chargement des serveurs,
+     * exclusif pour les commandes qui modifient la liste.
+     *
+     * @param commandName le nom de la commande
+     * @param options les options contenant le fichier et le délai d'attente
+     * @return le verrou acquis
+     * @throws IOException si le verrou n'a pas pu être acquis dans le délai
+     */
+    private static FileLockManager.ListLock acquireListLock(String commandName, CommandOptions options) throws IOException {
+        boolean shared = !commandRequiresSaving(commandName) || commandIsReadOnly(commandName);
+        FileLockManager.ListLock listLock = shared
+                ? FileLockManager.acquireShared(options.getFileName(), options.getLockTimeoutMillis())
+                : FileLockManager.acquireExclusive(options.getFileName(), options.getLockTimeoutMillis());
+        
+        if (listLock.getWaitedMillis() > 0) {
+            System.err.println("Verrou de " + options.getFileName() + " obtenu après "
+                    + listLock.getWaitedMillis() + " ms d'attente");
+        }
+        return listLock;
+    }
+
+    /**
+     * Libère le verrou de la liste, s'il est détenu.
+     *
+     * @param listLock le verrou à libérer (peut être null)
+     */
+    private static void releaseListLock(FileLockManager.ListLock listLock) {
+        if (listLock == null) {
+            return;
+        }
+        try {
+            listLock.close();
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la libération du verrou : " + e.getMessage());
         }
     }
 
@@ -219,7 +464,27 @@ public class CLIHandler {
      * @return true si la commande nécessite une sauvegarde, false sinon
      */
     private static boolean commandRequiresSaving(String commandName) {
-        return !("info".equals(commandName) || "web".equals(commandName));
+        return !("info".equals(commandName) || commandRunsInBackground(commandName));
+    }
+
+    /**
+     * Détermine si une commande se contente de lire la liste.
+     *
+     * @param commandName le nom de la commande
+     * @return true si la commande ne modifie pas la liste, false sinon
+     */
+    private static boolean commandIsReadOnly(String commandName) {
+        return "list".equals(commandName) || "stats".equals(commandName);
+    }
+
+    /**
+     * Détermine si une commande démarre un serveur qui gère lui-même ses sauvegardes.
+     *
+     * @param commandName le nom de la commande
+     * @return true pour les commandes serveur (web, daemon), false sinon
+     */
+    private static boolean commandRunsInBackground(String commandName) {
+        return "web".equals(commandName) || "daemon".equals(commandName);
     }
 
     /**
@@ -232,11 +497,34 @@ public class CLIHandler {
 
         // Options existantes
         cliOptions.addOption("s", "source", true, "Fichier contenant la liste de courses");
-        cliOptions.addOption("f", "format", true, "Format de fichier (json ou csv)");
+        cliOptions.addOption("f", "format", true, "Format de fichier (json, csv, journal ou bin)");
 
         // Option pour la catégorie
         cliOptions.addOption("c", "category", true, "Catégorie de l'article");
         
+        // Options de sauvegarde différée (serveur web, démon)
+        cliOptions.addOption(null, "flush-delay", true, "Délai maximal avant sauvegarde, en millisecondes");
+        cliOptions.addOption(null, "flush-max-ops", true, "Nombre de modifications déclenchant une sauvegarde");
+        
+        // Option de durabilité des sauvegardes
+        cliOptions.addOption(null, "durability", true, "Durabilité des sauvegardes (none, data ou full)");
+        
+        // Option de verrouillage entre processus
+        cliOptions.addOption(null, "lock-timeout", true, "Délai d'attente du verrou du fichier, en millisecondes");
+        
+        // Option du modèle de threads des serveurs (web, démon)
+        cliOptions.addOption(null, "web-threads", true,
+                "Threads des tâches de fond des serveurs : journalisation, sauvegarde différée, clients du démon "
+                        + "et /metrics (virtual ou platform)");
+        cliOptions.addOption(null, "virtual", false, "Raccourci pour --web-threads virtual");
+        
+        // Option de stockage en mémoire des articles
+        cliOptions.addOption(null, "store", true, "Stockage des articles en mémoire (map, columnar ou offheap)");
+        
+        // Options des métriques
+        cliOptions.addOption(null, "metrics", false, "Afficher les métriques sur la sortie d'erreur en fin de commande");
+        cliOptions.addOption(null, "metrics-port", true, "Port local du point d'accès /metrics des serveurs (web, démon)");
+        
         return cliOptions;
     }
 
@@ -251,8 +539,11 @@ public class CLIHandler {
             case "add" -> Optional.of(new AddCommand());
             case "remove" -> Optional.of(new RemoveCommand());
             case "list" -> Optional.of(new ListCommand());
+            case "stats" -> Optional.of(new StatsCommand());
             case "info" -> Optional.of(new InfoCommand());
             case "web" -> Optional.of(new WebCommand());
+            case "batch" -> Optional.of(new BatchCommand(CLIHandler::getCommand));
+            case "daemon" -> Optional.of(new DaemonCommand(CLIHandler::getCommand));
             default -> Optional.empty();
         };
     }
@@ -0,0 +1,34 @@
+package com.fges;
+
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Commande capable d'écrire son résultat au fil de l'eau plutôt que de le construire en mémoire.
+ * La CLI lui fournit directement la sortie standard ; les autres appelants (mode lot, démon, tests)
+ * continuent d'obtenir le résultat sous forme de chaîne.
+ */
+public interface StreamingCommand extends Command {
+    /**
+     * Exécute la commande en écrivant son résultat dans la sortie fournie.
+     * La sortie n'est ni vidée ni fermée.
+     *
+     * @param args les arguments de la commande
+     * @param groceryManager le gestionnaire de liste de courses
+     * @param options options de commande (fichier, format, catégorie)
+     * @param out la sortie où écrire le résultat
+     * @throws Exception si une erreur survient lors de l'exécution
+     */
+    void execute(List<String> args, GroceryManager groceryManager, CommandOptions options, Writer out) throws Exception;
+
+    @Override
+    default String execute(List<String> args, GroceryManager groceryManager, CommandOptions options) throws Exception {
+        StringWriter out = new StringWriter();
+        execute(args, groceryManager, options, out);
+        return out.toString();
+    }
+}
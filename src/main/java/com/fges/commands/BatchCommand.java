@@ -0,0 +1,185 @@
+package com.fges.commands;
+
+import com.fges.Command;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Commande exécutant une suite de commandes lues depuis un fichier ou l'entrée standard.
+ * <p>
+ * Toutes les commandes s'appliquent à la même liste chargée une seule fois ; la liste est
+ * sauvegardée une seule fois à la fin du lot. Chaque ligne contient une commande avec ses
+ * arguments, par exemple {@code add "Lait" 2} ou {@code category Fruits add Pommes 3}.
+ * Les lignes vides et celles commençant par {@code #} sont ignorées.
+ * Le résultat de chaque commande est affiché au fur et à mesure.
+ */
+public class BatchCommand implements Command {
+    private static final String STDIN = "-";
+    private static final Set<String> UNSUPPORTED_COMMANDS = Set.of("batch", "web", "daemon");
+
+    private final Function<String, Optional<Command>> commandResolver;
+    private final InputStream standardInput;
+    private final PrintStream output;
+
+    /**
+     * Construit la commande en lisant l'entrée standard et en écrivant sur la sortie standard.
+     *
+     * @param commandResolver fonction associant un nom de commande à son implémentation
+     */
+    public BatchCommand(Function<String, Optional<Command>> commandResolver) {
+        this(commandResolver, System.in, System.out);
+    }
+
+    /**
+     * Construit la commande avec des flux d'entrée et de sortie spécifiques.
+     *
+     * @param commandResolver fonction associant un nom de commande à son implémentation
+     * @param standardInput   flux lu lorsqu'aucun fichier n'est indiqué
+     * @param output          flux recevant le résultat de chaque commande
+     */
+    public BatchCommand(Function<String, Optional<Command>> commandResolver, InputStream standardInput, PrintStream output) {
+        this.commandResolver = commandResolver;
+        this.standardInput = standardInput;
+        this.output = output;
+    }
+
+    @Override
+    public String execute(List<String> args, GroceryManager groceryManager, CommandOptions options) throws Exception {
+        String scriptFile = args.size() >= 2 ? args.get(1) : STDIN;
+
+        int succeeded = 0;
+        int failed = 0;
+
+        try (BufferedReader reader = openScript(scriptFile)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+
+                try {
+                    List<String> tokens = tokenize(trimmed);
+                    String result = executeLine(tokens, groceryManager, options);
+                    output.println("[" + lineNumber + "] " + result);
+                    succeeded++;
+                } catch (Exception e) {
+                    output.println("[" + lineNumber + "] Erreur : " + e.getMessage());
+                    failed++;
+                }
+            }
+        }
+
+        return "Lot terminé : " + succeeded + " commande(s) réussie(s), " + failed + " en erreur";
+    }
+
+    /**
+     * Exécute une ligne déjà découpée en arguments.
+     *
+     * @param tokens         la commande et ses arguments
+     * @param groceryManager le gestionnaire de liste de courses partagé par le lot
+     * @param options        les options de la ligne de commande du lot
+     * @return le résultat de la commande
+     * @throws Exception si la commande est invalide ou échoue
+     */
+    public String executeLine(List<String> tokens, GroceryManager groceryManager, CommandOptions options) throws Exception {
+        List<String> commandArgs = tokens;
+        String category = options.getCategory();
+
+        // Préfixe "category <nom>" comme sur la ligne de commande
+        if ("category".equals(commandArgs.get(0))) {
+            if (commandArgs.size() < 3) {
+                throw new IllegalArgumentException("Commande manquante après la spécification de la catégorie.");
+            }
+            category = commandArgs.get(1);
+            commandArgs = commandArgs.subList(2, commandArgs.size());
+        }
+
+        String commandName = commandArgs.get(0);
+        if (UNSUPPORTED_COMMANDS.contains(commandName.toLowerCase())) {
+            throw new IllegalArgumentException("Commande non disponible en mode lot : " + commandName);
+        }
+
+        Command command = commandResolver.apply(commandName)
+                .orElseThrow(() -> new IllegalArgumentException("Commande inconnue : " + commandName));
+
+        CommandOptions lineOptions = options.toBuilder()
+                .category(category)
+                .build();
+
+        return command.execute(commandArgs, groceryManager, lineOptions);
+    }
+
+    /**
+     * Découpe une ligne en arguments séparés par des espaces ;
+     * les guillemets doubles permettent d'inclure des espaces dans un argument.
+     *
+     * @param line la ligne à découper
+     * @return les arguments de la ligne
+     */
+    public static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        boolean hasToken = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                inQuotes = !inQuotes;
+                hasToken = true;
+            } else if (Character.isWhitespace(c) && !inQuotes) {
+                if (hasToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    hasToken = false;
+                }
+            } else {
+                current.append(c);
+                hasToken = true;
+            }
+        }
+
+        if (inQuotes) {
+            throw new IllegalArgumentException("Guillemet non fermé : " + line);
+        }
+        if (hasToken) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Ouvre le script à exécuter : un fichier, ou l'entrée standard pour "-".
+     * L'entrée standard n'est pas fermée à la fin du lot, elle appartient à l'appelant.
+     */
+    private BufferedReader openScript(String scriptFile) throws IOException {
+        InputStream in = STDIN.equals(scriptFile) ? nonClosing(standardInput) : new FileInputStream(scriptFile);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static InputStream nonClosing(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public void close() {
+                // Laisser le flux ouvert pour l'appelant
+            }
+        };
+    }
+}
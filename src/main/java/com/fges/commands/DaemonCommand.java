@@ -0,0 +1,55 @@
+package com.fges.commands;
+
+import com.fges.Command;
+import com.fges.daemon.GroceryDaemon;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Commande pour démarrer le démon gardant la liste en mémoire, à l'écoute sur une socket Unix.
+ */
+public class DaemonCommand implements Command {
+    private final Function<String, Optional<Command>> commandResolver;
+
+    /**
+     * Construit la commande.
+     *
+     * @param commandResolver fonction associant un nom de commande à son implémentation
+     */
+    public DaemonCommand(Function<String, Optional<Command>> commandResolver) {
+        this.commandResolver = commandResolver;
+    }
+
+    @Override
+    public String execute(List<String> args, GroceryManager groceryManager, CommandOptions options) throws Exception {
+        if (args.size() < 2) {
+            throw new IllegalArgumentException("Socket non spécifiée. Usage: daemon <chemin de la socket>");
+        }
+
+        Path socketPath = Path.of(args.get(1));
+        createDaemon(groceryManager, options, socketPath);
+
+        return "Démon à l'écoute sur " + socketPath;
+    }
+
+    /**
+     * Crée et démarre le démon ; il est arrêté proprement à l'arrêt de la JVM.
+     *
+     * @param groceryManager gestionnaire de liste de courses
+     * @param options options de la commande contenant le nom du fichier
+     * @param socketPath chemin de la socket Unix d'écoute
+     * @return le démon démarré
+     * @throws Exception si la socket ne peut pas être ouverte
+     */
+    protected GroceryDaemon createDaemon(GroceryManager groceryManager, CommandOptions options, Path socketPath) throws Exception {
+        GroceryDaemon daemon = new GroceryDaemon(groceryManager, options, commandResolver, socketPath);
+        daemon.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close, "grocery-daemon-shutdown"));
+        return daemon;
+    }
+}
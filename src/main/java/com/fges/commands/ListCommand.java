@@ -1,57 +1,66 @@
 package com.fges.commands;
 
-import com.fges.Command;
+import com.fges.StreamingCommand;
+import com.fges.model.GroceryItem;
 import com.fges.model.GroceryManager;
 import com.fges.model.CommandOptions;
 import com.fges.util.MessageFormatter;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Commande pour afficher la liste des articles.
+ * Les articles sont écrits un par un, catégorie par catégorie, sans construire la liste complète en mémoire.
  */
-public class ListCommand implements Command {
+public class ListCommand implements StreamingCommand {
     @Override
-    public String execute(List<String> args, GroceryManager groceryManager, CommandOptions options) throws Exception {
-        StringBuilder result = new StringBuilder();
+    public void execute(List<String> args, GroceryManager groceryManager, CommandOptions options, Writer out)
+            throws Exception {
         String category = options.getCategory();
         
         if (category != null) {
             // Afficher uniquement les articles de la catégorie spécifiée
-            List<String> itemsInCategory = groceryManager.getItemsInCategory(category);
-            
-            if (itemsInCategory.isEmpty()) {
-                return MessageFormatter.formatEmptyCategory(category);
-            }
-            
-            result.append(MessageFormatter.formatCategoryHeader(category)).append("\n");
-            
-            for (String item : itemsInCategory) {
-                result.append(item).append("\n");
+            if (!writeCategory(groceryManager, category, out)) {
+                out.write(MessageFormatter.formatEmptyCategory(category));
             }
         } else {
             // Afficher tous les articles groupés par catégorie
-            Map<String, List<String>> itemsByCategory = groceryManager.getGroceryListByCategory();
+            List<String> categories = groceryManager.getCategories();
+            boolean empty = true;
             
-            if (itemsByCategory.isEmpty()) {
-                return MessageFormatter.formatEmptyList();
+            for (String categoryName : categories) {
+                if (writeCategory(groceryManager, categoryName, out)) {
+                    out.write("\n");
+                    empty = false;
+                }
             }
             
-            for (Map.Entry<String, List<String>> entry : itemsByCategory.entrySet()) {
-                String categoryName = entry.getKey();
-                List<String> items = entry.getValue();
-                
-                result.append(MessageFormatter.formatCategoryHeader(categoryName)).append("\n");
-                
-                for (String item : items) {
-                    result.append(item).append("\n");
-                }
-                
-                result.append("\n");
+            if (empty) {
+                out.write(MessageFormatter.formatEmptyList());
+            }
+        }
+    }
+
+    /**
+     * Écrit l'en-tête d'une catégorie suivi de ses articles ; n'écrit rien si la catégorie est vide.
+     *
+     * @return true si au moins un article a été écrit
+     */
+    private boolean writeCategory(GroceryManager groceryManager, String category, Writer out) throws IOException {
+        boolean headerWritten = false;
+        
+        for (GroceryItem item : groceryManager.itemsInCategory(category)) {
+            if (!headerWritten) {
+                out.write(MessageFormatter.formatCategoryHeader(category));
+                out.write("\n");
+                headerWritten = true;
             }
+            out.write(item.toString());
+            out.write("\n");
         }
         
-        return result.toString();
+        return headerWritten;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.fges.commands;
+
+import com.fges.Command;
+import com.fges.model.CategoryStats;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+import com.fges.util.MessageFormatter;
+
+import java.util.List;
+
+/**
+ * Commande affichant, pour chaque catégorie, le nombre d'articles et la quantité totale.
+ * Les agrégats sont tenus à jour par le GroceryManager : la commande ne parcourt pas les articles.
+ */
+public class StatsCommand implements Command {
+    @Override
+    public String execute(List<String> args, GroceryManager groceryManager, CommandOptions options) throws Exception {
+        String category = options.getCategory();
+        
+        if (category != null) {
+            // Afficher uniquement les statistiques de la catégorie spécifiée
+            CategoryStats stats = groceryManager.getCategoryStats(category);
+            if (stats.itemCount() == 0) {
+                return MessageFormatter.formatEmptyCategory(category);
+            }
+            return MessageFormatter.formatCategoryStats(stats.category(), stats.itemCount(), stats.totalQuantity());
+        }
+        
+        List<CategoryStats> allStats = groceryManager.getCategoryStats();
+        if (allStats.isEmpty()) {
+            return MessageFormatter.formatEmptyList();
+        }
+        
+        StringBuilder result = new StringBuilder();
+        long itemCount = 0;
+        long totalQuantity = 0;
+        for (CategoryStats stats : allStats) {
+            result.append(MessageFormatter.formatCategoryStats(stats.category(), stats.itemCount(), stats.totalQuantity()))
+                    .append("\n");
+            itemCount += stats.itemCount();
+            totalQuantity += stats.totalQuantity();
+        }
+        result.append(MessageFormatter.formatStatsTotal(itemCount, totalQuantity));
+        
+        return result.toString();
+    }
+}
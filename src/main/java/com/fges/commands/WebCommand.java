@@ -6,7 +6,6 @@ import com.fges.model.CommandOptions;
 import com.fges.web.SynchronizedGroceryShop;
 
 import fr.anthonyquere.GroceryShopServer;
-import fr.anthonyquere.MyGroceryShop;
 
 import java.util.List;
 
@@ -40,7 +39,7 @@ public class WebCommand implements Command {
     }
 
     /**
-     * Crée et démarre le serveur web
+     * Crée et démarre le serveur web ; le magasin est fermé proprement à l'arrêt de la JVM.
      * 
      * @param groceryManager gestionnaire de liste de courses
      * @param port port sur lequel démarrer le serveur
@@ -49,8 +48,9 @@ public class WebCommand implements Command {
      */
     protected GroceryShopServer createServer(GroceryManager groceryManager, int port, CommandOptions options) {
         // Création d'une interface synchronisée pour la liste de courses
-        MyGroceryShop synchronizedShop = new SynchronizedGroceryShop(groceryManager, options);
-        
+        SynchronizedGroceryShop synchronizedShop = new SynchronizedGroceryShop(groceryManager, options);
+        Runtime.getRuntime().addShutdownHook(new Thread(synchronizedShop::close, "grocery-shop-shutdown"));
+
         // Démarrage du serveur web
         GroceryShopServer server = new GroceryShopServer(synchronizedShop);
         server.start(port);
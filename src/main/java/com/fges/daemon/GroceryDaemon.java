@@ -0,0 +1,292 @@
+package com.fges.daemon;
+
+import com.fges.Command;
+import com.fges.commands.BatchCommand;
+import com.fges.metrics.MetricsRegistry;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+import com.fges.storage.FileLockManager;
+import com.fges.storage.WriteBehindFlusher;
+import com.fges.util.ThreadModel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+/**
+ * Démon gardant la liste de courses en mémoire et recevant des commandes sur une socket Unix locale.
+ * <p>
+ * Protocole : le client envoie une commande par ligne, avec la même syntaxe que le mode lot
+ * (par exemple {@code add "Lait" 2} ou {@code category Fruits add Pommes 3}).
+ * Pour chaque commande, le démon répond par une ligne {@code OK} ou {@code ERREUR}, suivie du
+ * résultat, puis d'une ligne contenant uniquement {@code .} ; les lignes du résultat commençant
+ * par un point sont préfixées d'un point supplémentaire. Un client peut donc être un simple
+ * {@code socat - UNIX-CONNECT:<socket>}.
+ * <p>
+ * Les commandes s'exécutent sous le verrou du GroceryManager : les commandes de lecture
+ * ({@code list}, {@code info}, {@code stats}) en parallèle, les autres l'une après l'autre.
+ * Les sauvegardes sont différées et regroupées par un {@link WriteBehindFlusher}, hors du chemin
+ * des requêtes.
+ * Chaque client est servi sur son propre thread, virtuel ou système selon {@link ThreadModel}.
+ */
+public class GroceryDaemon implements AutoCloseable {
+    private static final String END_OF_RESPONSE = ".";
+    private static final Set<String> READ_ONLY_COMMANDS = Set.of("list", "info", "stats");
+
+    private final GroceryManager groceryManager;
+    private final CommandOptions options;
+    private final BatchCommand interpreter;
+    private final Path socketPath;
+    private final WriteBehindFlusher flusher;
+    private final ExecutorService clientExecutor;
+
+    private ServerSocketChannel serverChannel;
+    private Thread acceptThread;
+    private volatile boolean running;
+
+    /**
+     * Construit un démon pour la liste fournie.
+     *
+     * @param groceryManager  le gestionnaire de liste de courses, déjà chargé
+     * @param options         les options de commande (fichier, format, sauvegarde différée)
+     * @param commandResolver fonction associant un nom de commande à son implémentation
+     * @param socketPath      chemin de la socket Unix d'écoute
+     */
+    public GroceryDaemon(GroceryManager groceryManager, CommandOptions options,
+                         Function<String, Optional<Command>> commandResolver, Path socketPath) {
+        this.groceryManager = groceryManager;
+        this.options = options;
+        this.interpreter = new BatchCommand(commandResolver);
+        this.socketPath = socketPath;
+        this.flusher = options.getFileName() != null
+                ? new WriteBehindFlusher(this::saveGroceryList, options.getFlushDelayMillis(),
+                        options.getFlushMaxPendingOps(), options.getWebThreads().threadFactory("grocery-daemon-flusher"))
+                : null;
+        this.clientExecutor = options.getWebThreads().newTaskExecutor("grocery-daemon-client");
+        if (flusher != null) {
+            flusher.registerMetrics(MetricsRegistry.getDefault(), "daemon");
+        }
+    }
+
+    /**
+     * Ouvre la socket et commence à accepter les clients sur un thread dédié.
+     *
+     * @throws IOException si la socket ne peut pas être ouverte ou est déjà utilisée
+     */
+    public void start() throws IOException {
+        removeStaleSocket();
+
+        serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+        running = true;
+
+        acceptThread = new Thread(this::acceptClients, "grocery-daemon-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Arrête le démon : ferme la socket, sauvegarde les modifications en attente et supprime le fichier de socket.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            if (serverChannel != null) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la fermeture de la socket : " + e.getMessage());
+        }
+
+        clientExecutor.shutdownNow();
+        try {
+            clientExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (flusher != null) {
+            try {
+                flusher.close();
+            } catch (IOException e) {
+                System.err.println("Erreur lors de la sauvegarde finale : " + e.getMessage());
+            }
+        }
+
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            System.err.println("Impossible de supprimer la socket " + socketPath + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Exécute une commande et construit la réponse du protocole, sans le marqueur de fin.
+     *
+     * @param line la ligne de commande reçue
+     * @return la réponse à renvoyer au client
+     */
+    String handleRequest(String line) {
+        try {
+            List<String> tokens = BatchCommand.tokenize(line.trim());
+            if (tokens.isEmpty()) {
+                throw new IllegalArgumentException("Commande manquante.");
+            }
+
+            boolean readOnly = READ_ONLY_COMMANDS.contains(commandName(tokens));
+            if (!readOnly && flusher != null && flusher.isClosed()) {
+                throw new IllegalStateException("Démon arrêté : modification refusée");
+            }
+            Lock lock = readOnly ? groceryManager.lock().readLock() : groceryManager.lock().writeLock();
+            String result;
+            lock.lock();
+            try {
+                result = interpreter.executeLine(tokens, groceryManager, options);
+            } finally {
+                lock.unlock();
+            }
+
+            if (flusher != null && !readOnly) {
+                markDirty();
+            }
+            return "OK\n" + result;
+        } catch (Exception e) {
+            return "ERREUR\n" + e.getMessage();
+        }
+    }
+
+    /**
+     * Signale une modification au flusher. Si le flusher a été fermé depuis la vérification,
+     * la modification déjà appliquée est sauvegardée sans attendre.
+     */
+    private void markDirty() throws IOException {
+        try {
+            flusher.markDirty();
+        } catch (IllegalStateException e) {
+            saveGroceryList();
+        }
+    }
+
+    /**
+     * Boucle d'acceptation des clients ; chaque client est servi sur son propre thread.
+     */
+    private void acceptClients() {
+        while (running) {
+            try {
+                SocketChannel client = serverChannel.accept();
+                try {
+                    clientExecutor.execute(() -> serveClient(client));
+                } catch (RejectedExecutionException e) {
+                    // Démon en cours d'arrêt
+                    client.close();
+                    return;
+                }
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Erreur lors de l'acceptation d'un client : " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit les commandes d'un client jusqu'à la fin de son flux et répond à chacune.
+     */
+    private void serveClient(SocketChannel client) {
+        try (client;
+             BufferedReader reader = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+             BufferedWriter writer = new BufferedWriter(
+                     new OutputStreamWriter(Channels.newOutputStream(client), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                writeResponse(writer, handleRequest(line));
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Erreur de communication avec un client : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Écrit une réponse suivie du marqueur de fin, en doublant les points en début de ligne.
+     */
+    private void writeResponse(BufferedWriter writer, String response) throws IOException {
+        for (String responseLine : response.split("\n", -1)) {
+            if (responseLine.startsWith(END_OF_RESPONSE)) {
+                writer.write(END_OF_RESPONSE);
+            }
+            writer.write(responseLine);
+            writer.newLine();
+        }
+        writer.write(END_OF_RESPONSE);
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Supprime une socket laissée par un démon arrêté brutalement, si aucun démon n'y répond.
+     */
+    private void removeStaleSocket() throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+        boolean alive;
+        try (SocketChannel probe = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            alive = true;
+        } catch (IOException e) {
+            alive = false;
+        }
+
+        if (alive) {
+            throw new IOException("Un démon écoute déjà sur " + socketPath);
+        }
+        Files.delete(socketPath);
+    }
+
+    /**
+     * Sauvegarde la liste ; exécutée par le flusher, en exclusion mutuelle avec les autres
+     * processus grâce au verrou du fichier. Les commandes ne sont bloquées que le temps
+     * de copier les modifications à écrire.
+     */
+    private void saveGroceryList() throws IOException {
+        try (FileLockManager.ListLock ignored =
+                     FileLockManager.acquireExclusive(options.getFileName(), options.getLockTimeoutMillis())) {
+            groceryManager.saveGroceryList(options.getFileName());
+        }
+    }
+
+    /**
+     * Retourne le nom de la commande, en ignorant un éventuel préfixe "category <nom>".
+     */
+    private static String commandName(List<String> tokens) {
+        if ("category".equals(tokens.get(0)) && tokens.size() > 2) {
+            return tokens.get(2).toLowerCase();
+        }
+        return tokens.get(0).toLowerCase();
+    }
+}
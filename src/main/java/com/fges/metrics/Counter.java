@@ -0,0 +1,42 @@
+package com.fges.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur croissant, incrémenté sans contention par plusieurs threads ({@link LongAdder}).
+ */
+public final class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Incrémente le compteur de un.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * Ajoute une valeur positive au compteur.
+     *
+     * @param amount la valeur à ajouter
+     * @throws IllegalArgumentException si la valeur est négative
+     */
+    public void add(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Un compteur ne peut pas diminuer");
+        }
+        value.add(amount);
+    }
+
+    /**
+     * Retourne la valeur courante du compteur.
+     *
+     * @return la valeur du compteur
+     */
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,136 @@
+package com.fges.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées en nanosecondes, à la manière d'HdrHistogram.
+ * <p>
+ * Les valeurs sont rangées dans des intervalles log-linéaires : chaque puissance de deux est découpée
+ * en {@value #SUB_BUCKETS} intervalles de même largeur. L'erreur relative d'un centile est donc
+ * d'au plus 1/{@value #SUB_BUCKETS}, de la nanoseconde à plusieurs siècles, pour une taille fixe
+ * (moins de 500 compteurs). L'enregistrement ne prend aucun verrou et n'alloue rien : il incrémente
+ * un compteur atomique, puis le nombre, la somme et le maximum ({@link LongAdder}, {@link LongAccumulator}).
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    LatencyHistogram() {
+    }
+
+    /**
+     * Enregistre une durée ; une durée négative est comptée comme nulle.
+     *
+     * @param nanos la durée en nanosecondes
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Enregistre la durée écoulée depuis un instant mesuré par {@link System#nanoTime()}.
+     *
+     * @param startNanos l'instant de début
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Retourne le nombre de durées enregistrées.
+     *
+     * @return le nombre de durées
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Retourne la somme des durées enregistrées.
+     *
+     * @return la somme en nanosecondes
+     */
+    public long sumNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * Retourne la plus grande durée enregistrée.
+     *
+     * @return le maximum en nanosecondes, 0 si aucune durée n'a été enregistrée
+     */
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Retourne une borne supérieure du centile demandé : la plus grande valeur de l'intervalle
+     * qui le contient, sans dépasser le maximum enregistré.
+     *
+     * @param quantile le centile, entre 0 et 1 (0.99 pour le 99e centile)
+     * @return la durée en nanosecondes, 0 si aucune durée n'a été enregistrée
+     * @throws IllegalArgumentException si le centile n'est pas entre 0 et 1
+     */
+    public long quantileNanos(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Le centile doit être compris entre 0 et 1 : " + quantile);
+        }
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            snapshot[bucket] = counts.get(bucket);
+            total += snapshot[bucket];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += snapshot[bucket];
+            if (seen >= rank) {
+                return Math.min(highestValueIn(bucket), maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    /**
+     * Retourne l'intervalle d'une valeur : les {@value #SUB_BUCKETS} premières valeurs ont chacune
+     * le leur, puis chaque puissance de deux est découpée selon ses bits de poids fort.
+     */
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Retourne la plus grande valeur rangée dans un intervalle.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,183 @@
+package com.fges.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registre des métriques de l'application : compteurs, histogrammes de durées et jauges.
+ * <p>
+ * Une métrique est identifiée par son nom et, éventuellement, par la valeur d'une étiquette
+ * (par exemple {@code command="add"}) : toutes les séries d'un même nom forment une famille,
+ * de même type et de même étiquette. Demander une métrique existante renvoie la même instance ;
+ * les instruments peuvent donc la conserver dans un champ statique. Le registre par défaut
+ * ({@link #getDefault()}) est celui exporté par {@code --metrics} et {@code --metrics-port}.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    private static final String NO_LABEL = "";
+
+    // Familles triées par nom, pour une exportation stable
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * Retourne le registre partagé par toute l'application.
+     *
+     * @return le registre par défaut
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Retourne le compteur du nom indiqué, en le créant au premier appel.
+     *
+     * @param name le nom de la métrique, suffixé par {@code _total}
+     * @param help la description de la métrique
+     * @return le compteur
+     */
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, NO_LABEL);
+    }
+
+    /**
+     * Retourne le compteur du nom et de la valeur d'étiquette indiqués, en le créant au premier appel.
+     *
+     * @param name le nom de la métrique, suffixé par {@code _total}
+     * @param help la description de la métrique
+     * @param labelName le nom de l'étiquette
+     * @param labelValue la valeur de l'étiquette
+     * @return le compteur
+     */
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return family(name, help, MetricType.COUNTER, labelName).series(labelValue, Counter::new);
+    }
+
+    /**
+     * Retourne l'histogramme de durées du nom indiqué, en le créant au premier appel.
+     *
+     * @param name le nom de la métrique, suffixé par {@code _seconds}
+     * @param help la description de la métrique
+     * @return l'histogramme
+     */
+    public LatencyHistogram histogram(String name, String help) {
+        return histogram(name, help, null, NO_LABEL);
+    }
+
+    /**
+     * Retourne l'histogramme de durées du nom et de la valeur d'étiquette indiqués,
+     * en le créant au premier appel.
+     *
+     * @param name le nom de la métrique, suffixé par {@code _seconds}
+     * @param help la description de la métrique
+     * @param labelName le nom de l'étiquette
+     * @param labelValue la valeur de l'étiquette
+     * @return l'histogramme
+     */
+    public LatencyHistogram histogram(String name, String help, String labelName, String labelValue) {
+        return family(name, help, MetricType.SUMMARY, labelName).series(labelValue, LatencyHistogram::new);
+    }
+
+    /**
+     * Enregistre un compteur dont la valeur est lue à chaque exportation, par exemple un compteur
+     * déjà tenu par un composant. Un nouvel enregistrement remplace le précédent.
+     *
+     * @param name le nom de la métrique, suffixé par {@code _total}
+     * @param help la description de la métrique
+     * @param labelName le nom de l'étiquette, ou null
+     * @param labelValue la valeur de l'étiquette, ou null
+     * @param value la fonction donnant la valeur courante
+     */
+    public void counterFunction(String name, String help, String labelName, String labelValue, LongSupplier value) {
+        family(name, help, MetricType.COUNTER, labelName).replace(labelValue, value);
+    }
+
+    /**
+     * Enregistre une jauge, dont la valeur est lue à chaque exportation.
+     * Un nouvel enregistrement remplace le précédent.
+     *
+     * @param name le nom de la métrique
+     * @param help la description de la métrique
+     * @param labelName le nom de l'étiquette, ou null
+     * @param labelValue la valeur de l'étiquette, ou null
+     * @param value la fonction donnant la valeur courante
+     */
+    public void gauge(String name, String help, String labelName, String labelValue, LongSupplier value) {
+        family(name, help, MetricType.GAUGE, labelName).replace(labelValue, value);
+    }
+
+    /**
+     * Écrit toutes les métriques au format texte de Prometheus.
+     *
+     * @param out la destination
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void writePrometheus(Writer out) throws IOException {
+        PrometheusTextFormat.write(families.values(), out);
+    }
+
+    /**
+     * Retourne la famille du nom indiqué, en la créant au premier appel ; une famille existante
+     * doit avoir le même type et la même étiquette.
+     */
+    private Family family(String name, String help, MetricType type, String labelName) {
+        Family family = families.computeIfAbsent(name, key -> new Family(key, help, type, labelName));
+        if (family.type() != type || !String.valueOf(family.labelName()).equals(String.valueOf(labelName))) {
+            throw new IllegalArgumentException("La métrique " + name + " existe déjà avec un autre type ou une autre étiquette");
+        }
+        return family;
+    }
+
+    /**
+     * Type d'une famille, tel qu'annoncé dans l'exportation.
+     */
+    enum MetricType {
+        COUNTER("counter"),
+        GAUGE("gauge"),
+        SUMMARY("summary");
+
+        private final String exposedName;
+
+        MetricType(String exposedName) {
+            this.exposedName = exposedName;
+        }
+
+        String exposedName() {
+            return exposedName;
+        }
+    }
+
+    /**
+     * Séries d'un même nom, indexées par valeur d'étiquette ; une série est un {@link Counter},
+     * un {@link LatencyHistogram} ou une fonction {@link LongSupplier}.
+     */
+    record Family(String name, String help, MetricType type, String labelName,
+                  ConcurrentMap<String, Object> seriesByLabel) {
+        Family(String name, String help, MetricType type, String labelName) {
+            this(name, help, type, labelName, new ConcurrentHashMap<>());
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T series(String labelValue, Supplier<T> factory) {
+            return (T) seriesByLabel.computeIfAbsent(labelKey(labelValue), key -> factory.get());
+        }
+
+        void replace(String labelValue, LongSupplier value) {
+            seriesByLabel.put(labelKey(labelValue), value);
+        }
+
+        Collection<Map.Entry<String, Object>> series() {
+            return new ConcurrentSkipListMap<>(seriesByLabel).entrySet();
+        }
+
+        private String labelKey(String labelValue) {
+            return labelName != null && labelValue != null ? labelValue : NO_LABEL;
+        }
+    }
+}
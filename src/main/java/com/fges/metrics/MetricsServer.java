@@ -0,0 +1,84 @@
+package com.fges.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Point d'accès HTTP {@code /metrics} exportant un registre au format texte de Prometheus.
+ * <p>
+ * Le serveur n'écoute que sur l'interface locale : les métriques ne sortent pas de la machine
+ * sans un relais explicite. Les requêtes sont servies par l'exécuteur fourni.
+ */
+public class MetricsServer implements AutoCloseable {
+    /**
+     * Chemin du point d'accès.
+     */
+    public static final String PATH = "/metrics";
+
+    private final HttpServer server;
+    private final MetricsRegistry registry;
+    private final ExecutorService executor;
+
+    /**
+     * Démarre le serveur sur le port local indiqué.
+     *
+     * @param port le port d'écoute, 0 pour un port libre quelconque
+     * @param registry le registre à exporter
+     * @param executor l'exécuteur servant les requêtes, arrêté à la fermeture du serveur
+     * @throws IOException si le port ne peut pas être ouvert
+     */
+    public MetricsServer(int port, MetricsRegistry registry, ExecutorService executor) throws IOException {
+        this.registry = registry;
+        this.executor = executor;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Retourne le port effectivement ouvert.
+     *
+     * @return le port d'écoute
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Répond aux requêtes GET par l'état courant du registre, et refuse les autres méthodes.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            StringWriter text = new StringWriter();
+            registry.writePrometheus(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", PrometheusTextFormat.CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(body);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+}
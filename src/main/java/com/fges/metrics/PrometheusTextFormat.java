@@ -0,0 +1,93 @@
+package com.fges.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Écriture des métriques au format texte de Prometheus (version 0.0.4).
+ * <p>
+ * Les histogrammes de durées sont exportés comme des résumés, en secondes : quelques centiles,
+ * la somme et le nombre des durées.
+ */
+final class PrometheusTextFormat {
+    /**
+     * Type de contenu annoncé par le point d'accès HTTP.
+     */
+    static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private PrometheusTextFormat() {
+    }
+
+    /**
+     * Écrit les familles fournies, précédées de leur description et de leur type.
+     *
+     * @param families les familles de métriques
+     * @param out la destination
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    static void write(Iterable<MetricsRegistry.Family> families, Writer out) throws IOException {
+        for (MetricsRegistry.Family family : families) {
+            out.write("# HELP " + family.name() + " " + escapeHelp(family.help()) + "\n");
+            out.write("# TYPE " + family.name() + " " + family.type().exposedName() + "\n");
+            for (Map.Entry<String, Object> series : family.series()) {
+                String label = family.labelName() != null
+                        ? family.labelName() + "=\"" + escapeLabelValue(series.getKey()) + "\""
+                        : null;
+                writeSeries(family.name(), label, series.getValue(), out);
+            }
+        }
+    }
+
+    private static void writeSeries(String name, String label, Object series, Writer out) throws IOException {
+        if (series instanceof Counter counter) {
+            writeSample(name, label, null, Long.toString(counter.get()), out);
+        } else if (series instanceof LongSupplier function) {
+            writeSample(name, label, null, Long.toString(function.getAsLong()), out);
+        } else if (series instanceof LatencyHistogram histogram) {
+            for (double quantile : QUANTILES) {
+                writeSample(name, label, "quantile=\"" + quantile + "\"",
+                        seconds(histogram.quantileNanos(quantile)), out);
+            }
+            writeSample(name + "_sum", label, null, seconds(histogram.sumNanos()), out);
+            writeSample(name + "_count", label, null, Long.toString(histogram.count()), out);
+        }
+    }
+
+    private static void writeSample(String name, String label, String extraLabel, String value, Writer out)
+            throws IOException {
+        out.write(name);
+        if (label != null || extraLabel != null) {
+            out.write('{');
+            if (label != null) {
+                out.write(label);
+            }
+            if (extraLabel != null) {
+                if (label != null) {
+                    out.write(',');
+                }
+                out.write(extraLabel);
+            }
+            out.write('}');
+        }
+        out.write(' ');
+        out.write(value);
+        out.write('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / NANOS_PER_SECOND);
+    }
+
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+
+    private static String escapeLabelValue(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -1,61 +1,119 @@
 package com.fges.model;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.ArrayList;
 
 /**
  * Classe gérant les catégories d'articles.
  * Permet de regrouper et organiser les articles par catégorie.
+ * <p>
+ * Chaque catégorie reçoit un identifiant entier dense, attribué une seule fois : son nom n'est
+ * stocké qu'en un exemplaire. Chaque article occupe un emplacement numéroté, qui retient son nom
+ * et l'identifiant de sa catégorie ; les membres d'une catégorie forment un {@link BitSet} sur ces
+ * emplacements. Les noms d'articles sont indexés par une table de hachage à adressage ouvert
+ * contenant des numéros d'emplacement, sans objet intermédiaire par article.
+ * <p>
+ * Le nombre d'articles et la quantité totale de chaque catégorie sont tenus à jour à chaque
+ * modification ; les statistiques ({@link #getCategoryStats()}) ne parcourent donc pas les articles.
  */
 public class CategoryManager {
-    private final Map<String, Set<String>> itemsByCategory;
-    private final Map<String, String> categoriesByItem;
+    private static final String DEFAULT_CATEGORY = "default";
+    private static final int DEFAULT_CATEGORY_ID = 0;
+    private static final int INITIAL_SLOTS = 16;
+
+    // Dictionnaire des catégories : nom -> identifiant, et par identifiant, le nom, les membres et leur nombre
+    private final Map<String, Integer> categoryIds;
+    private final List<String> categoryNames;
+    private final List<BitSet> membersByCategory;
+    private int[] categorySizes;
+    private long[] categoryQuantities;
+
+    // Emplacements des articles : nom et catégorie de l'article occupant chaque emplacement
+    private String[] itemNames;
+    private int[] categoryBySlot;
+    private int[] quantityBySlot;
+    private final BitSet freeSlots;
+    private int slotCount;
+
+    // Index des noms : numéro d'emplacement + 1, 0 pour une case vide
+    private int[] index;
+    private int itemCount;
 
     /**
      * Constructeur initialisant les structures de données.
      */
     public CategoryManager() {
-        // LinkedHashMap pour conserver l'ordre d'insertion
-        this.itemsByCategory = new LinkedHashMap<>();
-        this.categoriesByItem = new HashMap<>();
-        
+        this.categoryIds = new HashMap<>();
+        this.categoryNames = new ArrayList<>();
+        this.membersByCategory = new ArrayList<>();
+        this.categorySizes = new int[4];
+        this.categoryQuantities = new long[4];
+
+        this.itemNames = new String[INITIAL_SLOTS];
+        this.categoryBySlot = new int[INITIAL_SLOTS];
+        this.quantityBySlot = new int[INITIAL_SLOTS];
+        this.freeSlots = new BitSet();
+        this.index = new int[INITIAL_SLOTS * 2];
+
         // Ajouter la catégorie par défaut
-        this.itemsByCategory.put("default", new HashSet<>());
+        internCategory(DEFAULT_CATEGORY);
     }
 
     /**
-     * Ajoute un article à une catégorie.
+     * Ajoute un article à une catégorie, en conservant sa quantité s'il est déjà connu.
      *
      * @param itemName le nom de l'article
      * @param category la catégorie (si null, utilise la catégorie par défaut)
      */
     public void addItemToCategory(String itemName, String category) {
-        String actualCategory = (category != null && !category.trim().isEmpty()) ? category : "default";
-        
-        // Créer la catégorie si elle n'existe pas encore
-        itemsByCategory.computeIfAbsent(actualCategory, k -> new HashSet<>());
-        
-        // Supprimer l'article de son ancienne catégorie si nécessaire
-        if (categoriesByItem.containsKey(itemName)) {
-            String oldCategory = categoriesByItem.get(itemName);
-            if (!oldCategory.equals(actualCategory) && itemsByCategory.containsKey(oldCategory)) {
-                itemsByCategory.get(oldCategory).remove(itemName);
-                
-                // Supprimer la catégorie si elle est vide et n'est pas la catégorie par défaut
-                if (itemsByCategory.get(oldCategory).isEmpty() && !oldCategory.equals("default")) {
-                    itemsByCategory.remove(oldCategory);
-                }
+        int position = findPosition(itemName);
+        int quantity = index[position] != 0 ? quantityBySlot[index[position] - 1] : 0;
+        addItemToCategory(itemName, category, quantity);
+    }
+
+    /**
+     * Ajoute un article à une catégorie avec sa quantité, qui remplace la précédente.
+     *
+     * @param itemName le nom de l'article
+     * @param category la catégorie (si null, utilise la catégorie par défaut)
+     * @param quantity la quantité de l'article
+     */
+    public void addItemToCategory(String itemName, String category, int quantity) {
+        String actualCategory = (category != null && !category.trim().isEmpty()) ? category : DEFAULT_CATEGORY;
+        int categoryId = internCategory(actualCategory);
+
+        int position = findPosition(itemName);
+        int slot;
+        if (index[position] != 0) {
+            slot = index[position] - 1;
+            int oldCategoryId = categoryBySlot[slot];
+            if (oldCategoryId == categoryId) {
+                categoryQuantities[categoryId] += quantity - quantityBySlot[slot];
+                quantityBySlot[slot] = quantity;
+                return;
             }
+            // Retirer l'article de son ancienne catégorie
+            leaveCategory(oldCategoryId, slot);
+        } else {
+            slot = allocateSlot(itemName);
+            index[position] = slot + 1;
+            itemCount++;
+            growIndexIfNeeded();
         }
-        
+
         // Ajouter l'article à la nouvelle catégorie
-        itemsByCategory.get(actualCategory).add(itemName);
-        categoriesByItem.put(itemName, actualCategory);
+        categoryBySlot[slot] = categoryId;
+        quantityBySlot[slot] = quantity;
+        membersByCategory.get(categoryId).set(slot);
+        categorySizes[categoryId]++;
+        categoryQuantities[categoryId] += quantity;
     }
 
     /**
@@ -64,18 +122,36 @@ public class CategoryManager {
      * @param itemName le nom de l'article
      */
     public void removeItem(String itemName) {
-        if (categoriesByItem.containsKey(itemName)) {
-            String category = categoriesByItem.get(itemName);
-            if (itemsByCategory.containsKey(category)) {
-                itemsByCategory.get(category).remove(itemName);
-                
-                // Supprimer la catégorie si elle est vide et n'est pas la catégorie par défaut
-                if (itemsByCategory.get(category).isEmpty() && !category.equals("default")) {
-                    itemsByCategory.remove(category);
-                }
-            }
-            categoriesByItem.remove(itemName);
+        int position = findPosition(itemName);
+        if (index[position] == 0) {
+            return;
         }
+        int slot = index[position] - 1;
+        leaveCategory(categoryBySlot[slot], slot);
+        removeFromIndex(position);
+        itemCount--;
+
+        itemNames[slot] = null;
+        freeSlots.set(slot);
+    }
+
+    /**
+     * Supprime tous les articles ; seule la catégorie par défaut subsiste. Le dictionnaire des
+     * catégories repart de zéro : après un rechargement, l'ordre des catégories suit le fichier.
+     */
+    public void clear() {
+        categoryIds.clear();
+        categoryNames.clear();
+        membersByCategory.clear();
+        Arrays.fill(categorySizes, 0);
+        Arrays.fill(categoryQuantities, 0);
+        Arrays.fill(itemNames, 0, slotCount, null);
+        freeSlots.clear();
+        slotCount = 0;
+        Arrays.fill(index, 0);
+        itemCount = 0;
+
+        internCategory(DEFAULT_CATEGORY);
     }
 
     /**
@@ -85,7 +161,8 @@ public class CategoryManager {
      * @return true si la catégorie existe, false sinon
      */
     public boolean categoryExists(String category) {
-        return itemsByCategory.containsKey(category);
+        Integer categoryId = categoryIds.get(category);
+        return categoryId != null && isActive(categoryId);
     }
 
     /**
@@ -95,7 +172,11 @@ public class CategoryManager {
      * @return la catégorie de l'article ou "default" si non trouvé
      */
     public String getItemCategory(String itemName) {
-        return categoriesByItem.getOrDefault(itemName, "default");
+        int position = findPosition(itemName);
+        if (index[position] == 0) {
+            return DEFAULT_CATEGORY;
+        }
+        return categoryNames.get(categoryBySlot[index[position] - 1]);
     }
 
     /**
@@ -105,10 +186,74 @@ public class CategoryManager {
      * @return la liste des noms d'articles dans cette catégorie
      */
     public List<String> getItemsInCategory(String category) {
-        if (itemsByCategory.containsKey(category)) {
-            return new ArrayList<>(itemsByCategory.get(category));
+        Integer categoryId = categoryIds.get(category);
+        if (categoryId == null) {
+            return new ArrayList<>();
         }
-        return new ArrayList<>();
+        List<String> result = new ArrayList<>(categorySizes[categoryId]);
+        BitSet members = membersByCategory.get(categoryId);
+        for (int slot = members.nextSetBit(0); slot >= 0; slot = members.nextSetBit(slot + 1)) {
+            result.add(itemNames[slot]);
+        }
+        return result;
+    }
+
+    /**
+     * Parcourt les articles d'une catégorie sans les copier.
+     * La catégorie ne doit pas être modifiée pendant le parcours.
+     *
+     * @param category le nom de la catégorie
+     * @return les noms d'articles de cette catégorie
+     */
+    public Iterable<String> itemsInCategory(String category) {
+        Integer categoryId = categoryIds.get(category);
+        if (categoryId == null) {
+            return List.of();
+        }
+        BitSet members = membersByCategory.get(categoryId);
+        return () -> members.stream().mapToObj(slot -> itemNames[slot]).iterator();
+    }
+
+    /**
+     * Récupère les catégories contenant au moins un article, dans l'ordre de leur première apparition.
+     *
+     * @return les noms des catégories non vides
+     */
+    public List<String> getNonEmptyCategories() {
+        List<String> result = new ArrayList<>();
+        for (int categoryId = 0; categoryId < categoryNames.size(); categoryId++) {
+            if (categorySizes[categoryId] > 0) {
+                result.add(categoryNames.get(categoryId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Récupère le nombre d'articles et la quantité totale de chaque catégorie non vide,
+     * dans l'ordre de leur première apparition. Le coût ne dépend que du nombre de catégories.
+     *
+     * @return les statistiques des catégories
+     */
+    public List<CategoryStats> getCategoryStats() {
+        List<CategoryStats> result = new ArrayList<>();
+        for (int categoryId = 0; categoryId < categoryNames.size(); categoryId++) {
+            if (categorySizes[categoryId] > 0) {
+                result.add(categoryStats(categoryId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Récupère le nombre d'articles et la quantité totale d'une catégorie.
+     *
+     * @param category le nom de la catégorie
+     * @return les statistiques de la catégorie (vides si elle n'existe pas)
+     */
+    public CategoryStats getCategoryStats(String category) {
+        Integer categoryId = categoryIds.get(category);
+        return categoryId != null ? categoryStats(categoryId) : new CategoryStats(category, 0, 0);
     }
 
     /**
@@ -117,7 +262,14 @@ public class CategoryManager {
      * @return un mapping des catégories avec leurs articles
      */
     public Map<String, Set<String>> getAllCategories() {
-        return new LinkedHashMap<>(itemsByCategory);
+        Map<String, Set<String>> result = new LinkedHashMap<>();
+        for (int categoryId = 0; categoryId < categoryNames.size(); categoryId++) {
+            if (isActive(categoryId)) {
+                String category = categoryNames.get(categoryId);
+                result.put(category, new LinkedHashSet<>(getItemsInCategory(category)));
+            }
+        }
+        return result;
     }
 
     /**
@@ -127,6 +279,129 @@ public class CategoryManager {
      * @return true si l'article existe, false sinon
      */
     public boolean containsItem(String itemName) {
-        return categoriesByItem.containsKey(itemName);
+        return index[findPosition(itemName)] != 0;
+    }
+
+    /**
+     * Retourne l'identifiant d'une catégorie, en l'attribuant à sa première apparition.
+     */
+    private int internCategory(String category) {
+        Integer existing = categoryIds.get(category);
+        if (existing != null) {
+            return existing;
+        }
+        int categoryId = categoryNames.size();
+        categoryIds.put(category, categoryId);
+        categoryNames.add(category);
+        membersByCategory.add(new BitSet());
+        if (categoryId == categorySizes.length) {
+            categorySizes = Arrays.copyOf(categorySizes, categoryId * 2);
+            categoryQuantities = Arrays.copyOf(categoryQuantities, categoryId * 2);
+        }
+        return categoryId;
+    }
+
+    /**
+     * Une catégorie existe tant qu'elle contient un article ; la catégorie par défaut existe toujours.
+     */
+    private boolean isActive(int categoryId) {
+        return categoryId == DEFAULT_CATEGORY_ID || categorySizes[categoryId] > 0;
+    }
+
+    private CategoryStats categoryStats(int categoryId) {
+        return new CategoryStats(categoryNames.get(categoryId), categorySizes[categoryId], categoryQuantities[categoryId]);
+    }
+
+    /**
+     * Retire un emplacement des membres d'une catégorie.
+     */
+    private void leaveCategory(int categoryId, int slot) {
+        categorySizes[categoryId]--;
+        categoryQuantities[categoryId] -= quantityBySlot[slot];
+        if (categorySizes[categoryId] == 0 && categoryId != DEFAULT_CATEGORY_ID) {
+            // Libérer les mots du BitSet d'une catégorie vidée
+            membersByCategory.set(categoryId, new BitSet());
+        } else {
+            membersByCategory.get(categoryId).clear(slot);
+        }
+    }
+
+    /**
+     * Attribue un emplacement à un nouvel article, en réutilisant d'abord le plus petit emplacement libéré.
+     */
+    private int allocateSlot(String itemName) {
+        int slot = freeSlots.nextSetBit(0);
+        if (slot >= 0) {
+            freeSlots.clear(slot);
+        } else {
+            slot = slotCount++;
+            if (slot == itemNames.length) {
+                itemNames = Arrays.copyOf(itemNames, slot * 2);
+                categoryBySlot = Arrays.copyOf(categoryBySlot, slot * 2);
+                quantityBySlot = Arrays.copyOf(quantityBySlot, slot * 2);
+            }
+        }
+        itemNames[slot] = itemName;
+        return slot;
+    }
+
+    /**
+     * Retourne la case de l'index contenant l'article, ou la case vide où il serait inséré.
+     */
+    private int findPosition(String itemName) {
+        int mask = index.length - 1;
+        int position = bucket(itemName, mask);
+        while (index[position] != 0 && !itemNames[index[position] - 1].equals(itemName)) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    /**
+     * Vide une case de l'index en y ramenant les entrées suivantes qui s'y trouvaient décalées,
+     * pour que les recherches par sondage linéaire restent correctes.
+     */
+    private void removeFromIndex(int position) {
+        int mask = index.length - 1;
+        int hole = position;
+        int current = position;
+        while (true) {
+            current = (current + 1) & mask;
+            if (index[current] == 0) {
+                break;
+            }
+            int home = bucket(itemNames[index[current] - 1], mask);
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                index[hole] = index[current];
+                hole = current;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * Double l'index lorsqu'il est rempli à moitié.
+     */
+    private void growIndexIfNeeded() {
+        if (itemCount * 2 <= index.length) {
+            return;
+        }
+        int[] oldIndex = index;
+        index = new int[oldIndex.length * 2];
+        int mask = index.length - 1;
+        for (int entry : oldIndex) {
+            if (entry != 0) {
+                int position = bucket(itemNames[entry - 1], mask);
+                while (index[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+                index[position] = entry;
+            }
+        }
+    }
+
+    private static int bucket(String itemName, int mask) {
+        int hash = itemName.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,11 @@
+package com.fges.model;
+
+/**
+ * Agrégats d'une catégorie, tenus à jour à chaque modification des articles.
+ *
+ * @param category      le nom de la catégorie
+ * @param itemCount     le nombre d'articles de la catégorie
+ * @param totalQuantity la somme des quantités de ces articles
+ */
+public record CategoryStats(String category, int itemCount, long totalQuantity) {
+}
@@ -0,0 +1,288 @@
+package com.fges.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Stockage des articles en colonnes de types primitifs, pour les très grandes listes.
+ * <p>
+ * Chaque article occupe une ligne : son nom est recopié dans une zone de caractères commune
+ * (position et longueur par ligne), sa quantité dans un {@code int[]} et sa catégorie sous la forme
+ * d'un identifiant {@code short} d'un dictionnaire. Les noms sont indexés par une table de hachage
+ * à adressage ouvert contenant des numéros de ligne. Aucun objet n'est conservé par article :
+ * les {@link GroceryItem} sont construits à la demande, à chaque lecture.
+ * <p>
+ * Une suppression laisse une ligne vide ; les lignes et la zone des noms sont compactées
+ * lorsque les lignes vides deviennent majoritaires.
+ */
+public class ColumnarItemStore implements ItemStore {
+    private static final int INITIAL_ROWS = 16;
+    private static final int MIN_COMPACTION_ROWS = 1024;
+    private static final short REMOVED = -1;
+
+    // Dictionnaire des catégories
+    private final Map<String, Short> categoryIds = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+
+    // Zone des noms
+    private char[] names = new char[INITIAL_ROWS * 8];
+    private int namesSize;
+
+    // Colonnes, une entrée par ligne
+    private int[] nameOffsets = new int[INITIAL_ROWS];
+    private int[] nameLengths = new int[INITIAL_ROWS];
+    private int[] nameHashes = new int[INITIAL_ROWS];
+    private int[] quantities = new int[INITIAL_ROWS];
+    private short[] categories = new short[INITIAL_ROWS];
+    private int rowCount;
+    private int size;
+
+    // Index des noms : numéro de ligne + 1, 0 pour une case vide
+    private int[] index = new int[INITIAL_ROWS * 2];
+
+    @Override
+    public GroceryItem get(String name) {
+        int entry = index[findPosition(name, name.hashCode())];
+        return entry != 0 ? view(entry - 1) : null;
+    }
+
+    @Override
+    public void put(GroceryItem item) {
+        String name = item.getName();
+        int hash = name.hashCode();
+        short categoryId = internCategory(item.getCategory());
+
+        int position = findPosition(name, hash);
+        if (index[position] != 0) {
+            int row = index[position] - 1;
+            quantities[row] = item.getQuantity();
+            categories[row] = categoryId;
+            return;
+        }
+
+        int row = appendRow(name, hash, item.getQuantity(), categoryId);
+        index[position] = row + 1;
+        size++;
+        if (size * 2 > index.length) {
+            rebuildIndex(index.length * 2);
+        }
+    }
+
+    @Override
+    public boolean remove(String name) {
+        int position = findPosition(name, name.hashCode());
+        if (index[position] == 0) {
+            return false;
+        }
+        categories[index[position] - 1] = REMOVED;
+        removeFromIndex(position);
+        size--;
+
+        int removedRows = rowCount - size;
+        if (removedRows >= MIN_COMPACTION_ROWS && removedRows > size) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(index, 0);
+        namesSize = 0;
+        rowCount = 0;
+        size = 0;
+        // Sans quoi le dictionnaire grandirait à chaque rechargement
+        categoryIds.clear();
+        categoryNames.clear();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GroceryItem> iterator() {
+        return new Iterator<>() {
+            private int nextRow = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return nextRow < rowCount;
+            }
+
+            @Override
+            public GroceryItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                GroceryItem item = view(nextRow);
+                nextRow = skipRemoved(nextRow + 1);
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Construit l'article correspondant à une ligne.
+     */
+    private GroceryItem view(int row) {
+        String name = new String(names, nameOffsets[row], nameLengths[row]);
+        return new GroceryItem(name, quantities[row], categoryNames.get(categories[row]));
+    }
+
+    /**
+     * Retourne la première ligne occupée à partir de {@code row}, ou {@code rowCount}.
+     */
+    private int skipRemoved(int row) {
+        while (row < rowCount && categories[row] == REMOVED) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Retourne l'identifiant d'une catégorie, en l'attribuant à sa première apparition.
+     */
+    private short internCategory(String category) {
+        Short existing = categoryIds.get(category);
+        if (existing != null) {
+            return existing;
+        }
+        if (categoryNames.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de catégories distinctes pour le stockage en colonnes");
+        }
+        short categoryId = (short) categoryNames.size();
+        categoryIds.put(category, categoryId);
+        categoryNames.add(category);
+        return categoryId;
+    }
+
+    /**
+     * Ajoute une ligne en fin de colonnes et recopie le nom dans la zone des noms.
+     */
+    private int appendRow(String name, int hash, int quantity, short categoryId) {
+        if (rowCount == quantities.length) {
+            int capacity = rowCount * 2;
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            nameHashes = Arrays.copyOf(nameHashes, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+        int length = name.length();
+        if (namesSize + length > names.length) {
+            names = Arrays.copyOf(names, Math.max(namesSize + length, names.length * 2));
+        }
+        name.getChars(0, length, names, namesSize);
+
+        int row = rowCount++;
+        nameOffsets[row] = namesSize;
+        nameLengths[row] = length;
+        nameHashes[row] = hash;
+        quantities[row] = quantity;
+        categories[row] = categoryId;
+        namesSize += length;
+        return row;
+    }
+
+    /**
+     * Retourne la case de l'index contenant l'article, ou la case vide où il serait inséré.
+     */
+    private int findPosition(String name, int hash) {
+        int mask = index.length - 1;
+        int position = bucket(hash, mask);
+        while (index[position] != 0 && !nameEquals(index[position] - 1, name, hash)) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    /**
+     * Compare le nom d'une ligne à une chaîne, sans construire de String.
+     */
+    private boolean nameEquals(int row, String name, int hash) {
+        if (nameHashes[row] != hash || nameLengths[row] != name.length()) {
+            return false;
+        }
+        int offset = nameOffsets[row];
+        for (int i = 0; i < nameLengths[row]; i++) {
+            if (names[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vide une case de l'index en y ramenant les entrées suivantes qui s'y trouvaient décalées,
+     * pour que les recherches par sondage linéaire restent correctes.
+     */
+    private void removeFromIndex(int position) {
+        int mask = index.length - 1;
+        int hole = position;
+        int current = position;
+        while (true) {
+            current = (current + 1) & mask;
+            if (index[current] == 0) {
+                break;
+            }
+            int home = bucket(nameHashes[index[current] - 1], mask);
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                index[hole] = index[current];
+                hole = current;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    /**
+     * Reconstruit l'index avec la capacité indiquée à partir des lignes occupées.
+     */
+    private void rebuildIndex(int capacity) {
+        index = new int[capacity];
+        int mask = capacity - 1;
+        for (int row = 0; row < rowCount; row++) {
+            if (categories[row] != REMOVED) {
+                int position = bucket(nameHashes[row], mask);
+                while (index[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+                index[position] = row + 1;
+            }
+        }
+    }
+
+    /**
+     * Supprime les lignes vides et les noms correspondants, en conservant l'ordre des articles.
+     */
+    private void compact() {
+        int target = 0;
+        int namesTarget = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (categories[row] == REMOVED) {
+                continue;
+            }
+            System.arraycopy(names, nameOffsets[row], names, namesTarget, nameLengths[row]);
+            nameOffsets[target] = namesTarget;
+            nameLengths[target] = nameLengths[row];
+            nameHashes[target] = nameHashes[row];
+            quantities[target] = quantities[row];
+            categories[target] = categories[row];
+            namesTarget += nameLengths[row];
+            target++;
+        }
+        rowCount = target;
+        namesSize = namesTarget;
+        rebuildIndex(index.length);
+    }
+
+    private static int bucket(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -1,5 +1,8 @@
 package com.fges.model;
 
+import com.fges.storage.DurabilityLevel;
+import com.fges.util.ThreadModel;
+
 /**
  * Class encapsulating all options for command execution.
  * This reduces parameter passing and centralizes command options.
@@ -8,11 +11,27 @@ public class CommandOptions {
     private final String fileName;
     private final String format;
     private final String category;
+    private final long flushDelayMillis;
+    private final int flushMaxPendingOps;
+    private final DurabilityLevel durability;
+    private final long lockTimeoutMillis;
+    private final String store;
+    private final ThreadModel webThreads;
+    private final boolean metrics;
+    private final int metricsPort;
     
     private CommandOptions(Builder builder) {
         this.fileName = builder.fileName;
         this.format = builder.format;
         this.category = builder.category;
+        this.flushDelayMillis = builder.flushDelayMillis;
+        this.flushMaxPendingOps = builder.flushMaxPendingOps;
+        this.durability = builder.durability;
+        this.lockTimeoutMillis = builder.lockTimeoutMillis;
+        this.store = builder.store;
+        this.webThreads = builder.webThreads;
+        this.metrics = builder.metrics;
+        this.metricsPort = builder.metricsPort;
     }
     
     public String getFileName() {
@@ -27,6 +46,82 @@ public class CommandOptions {
         return category;
     }
     
+    /**
+     * Maximum delay before a deferred save, in milliseconds.
+     */
+    public long getFlushDelayMillis() {
+        return flushDelayMillis;
+    }
+    
+    /**
+     * Number of pending modifications that triggers an immediate deferred save.
+     */
+    public int getFlushMaxPendingOps() {
+        return flushMaxPendingOps;
+    }
+    
+    /**
+     * How hard saves try to survive a crash or power loss.
+     */
+    public DurabilityLevel getDurability() {
+        return durability;
+    }
+    
+    /**
+     * Maximum time to wait for the lock of the list file, in milliseconds.
+     */
+    public long getLockTimeoutMillis() {
+        return lockTimeoutMillis;
+    }
+    
+    /**
+     * In-memory item store used by the GroceryManager ("map", "columnar" or "offheap").
+     */
+    public String getStore() {
+        return store;
+    }
+    
+    /**
+     * Kind of threads used for the background tasks of the servers: logging, deferred saves,
+     * daemon clients and the /metrics endpoint. The HTTP requests of the web shop are not affected.
+     */
+    public ThreadModel getWebThreads() {
+        return webThreads;
+    }
+    
+    /**
+     * Whether the collected metrics are written to standard error when the command ends.
+     */
+    public boolean isMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Local port of the /metrics endpoint started with the servers (web, daemon); 0 disables it.
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+    
+    /**
+     * Returns a builder initialized with all the options of this instance,
+     * so that a copy can be made with only a few options overridden.
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .fileName(fileName)
+                .format(format)
+                .category(category)
+                .flushDelayMillis(flushDelayMillis)
+                .flushMaxPendingOps(flushMaxPendingOps)
+                .durability(durability)
+                .lockTimeoutMillis(lockTimeoutMillis)
+                .store(store)
+                .webThreads(webThreads)
+                .metrics(metrics)
+                .metricsPort(metricsPort);
+    }
+    
     /**
      * Builder for CommandOptions.
      */
@@ -34,6 +129,14 @@ public class CommandOptions {
         private String fileName;
         private String format = "json"; // default format
         private String category;
+        private long flushDelayMillis = 500; // default deferred save delay
+        private int flushMaxPendingOps = 100;
+        private DurabilityLevel durability = DurabilityLevel.DEFAULT;
+        private long lockTimeoutMillis = 10_000; // default lock wait
+        private String store = "map"; // default item store
+        private ThreadModel webThreads = ThreadModel.DEFAULT;
+        private boolean metrics;
+        private int metricsPort; // no metrics endpoint by default
         
         public Builder fileName(String fileName) {
             this.fileName = fileName;
@@ -50,6 +153,46 @@ public class CommandOptions {
             return this;
         }
         
+        public Builder flushDelayMillis(long flushDelayMillis) {
+            this.flushDelayMillis = flushDelayMillis;
+            return this;
+        }
+        
+        public Builder flushMaxPendingOps(int flushMaxPendingOps) {
+            this.flushMaxPendingOps = flushMaxPendingOps;
+            return this;
+        }
+        
+        public Builder durability(DurabilityLevel durability) {
+            this.durability = durability;
+            return this;
+        }
+        
+        public Builder lockTimeoutMillis(long lockTimeoutMillis) {
+            this.lockTimeoutMillis = lockTimeoutMillis;
+            return this;
+        }
+        
+        public Builder store(String store) {
+            this.store = store;
+            return this;
+        }
+        
+        public Builder webThreads(ThreadModel webThreads) {
+            this.webThreads = webThreads;
+            return this;
+        }
+        
+        public Builder metrics(boolean metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+        
+        public Builder metricsPort(int metricsPort) {
+            this.metricsPort = metricsPort;
+            return this;
+        }
+        
         public CommandOptions build() {
             return new CommandOptions(this);
         }
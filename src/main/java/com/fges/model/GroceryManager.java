@@ -1,28 +1,71 @@
 package com.fges.model;
 
+import com.fges.metrics.Counter;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.MetricsRegistry;
 import com.fges.model.strategies.AddItemStrategy;
 import com.fges.model.strategies.ItemOperationStrategy;
 import com.fges.model.strategies.RemoveItemStrategy;
 import com.fges.model.strategies.UpdateItemStrategy;
+import com.fges.storage.FileStamp;
+import com.fges.storage.IncrementalStorageManager;
 import com.fges.storage.StorageManager;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Gestionnaire de la liste de courses.
  * Cette classe centralise toutes les opérations sur la liste des articles
  * en utilisant des stratégies pour les différentes opérations.
+ * <p>
+ * Le gestionnaire peut être partagé entre plusieurs threads : chaque opération prend le verrou
+ * de lecture ou d'écriture d'un {@link ReentrantReadWriteLock}, les lectures peuvent donc être
+ * simultanées. Les vues parcourues paresseusement ({@link #itemsView()}, {@link #itemsInCategory})
+ * ne sont pas protégées : pour les parcourir, ou pour enchaîner plusieurs opérations de façon
+ * atomique, l'appelant prend lui-même le verrou renvoyé par {@link #lock()}.
+ * <p>
+ * La durée des opérations sur les articles et des accès au stockage est mesurée dans
+ * le registre de métriques par défaut ({@link MetricsRegistry#getDefault()}).
  */
 public class GroceryManager {
-    private List<GroceryItem> items;
+    private static final OperationMetrics ADD_METRICS = OperationMetrics.of("add");
+    private static final OperationMetrics REMOVE_METRICS = OperationMetrics.of("remove");
+    private static final OperationMetrics UPDATE_METRICS = OperationMetrics.of("update");
+    private static final LatencyHistogram LOAD_LATENCY = storageLatency("load");
+    private static final LatencyHistogram SAVE_LATENCY = storageLatency("save");
+    private static final LatencyHistogram APPEND_LATENCY = storageLatency("append");
+
+    // Articles indexés par nom, dans l'ordre d'insertion
+    private final ItemStore items;
     private final StorageManager storageManager;
     private final CategoryManager categoryManager;
     
+    // Articles modifiés depuis le dernier chargement ou la dernière sauvegarde :
+    // une seule modification par article, la plus récente, dans l'ordre des modifications
+    private final Map<String, ItemChange> dirtyItems;
+    private String sourceFileName;
+    // Empreinte des fichiers de la liste au dernier chargement ou à la dernière sauvegarde
+    private List<FileStamp> sourceStamps = List.of();
+    
+    // Protège toutes les données ci-dessus ; la version change à chaque modification,
+    // sous le verrou d'écriture, mais se lit sans verrou
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long version;
+    
+    // Sérialise les sauvegardes, qui écrivent le fichier sans détenir le verrou ci-dessus
+    private final ReentrantLock saveLock = new ReentrantLock();
+    
     // Stratégies pour les opérations sur les articles
     private final ItemOperationStrategy addStrategy;
     private final ItemOperationStrategy removeStrategy;
@@ -34,9 +77,21 @@ public class GroceryManager {
      * @param storageManager le gestionnaire de stockage à utiliser
      */
     public GroceryManager(StorageManager storageManager) {
-        this.items = new ArrayList<>();
+        this(storageManager, new LinkedItemStore());
+    }
+
+    /**
+     * Construit un gestionnaire de liste de courses avec le gestionnaire de stockage
+     * et le stockage en mémoire des articles spécifiés.
+     *
+     * @param storageManager le gestionnaire de stockage à utiliser
+     * @param itemStore le stockage en mémoire des articles, vide
+     */
+    public GroceryManager(StorageManager storageManager, ItemStore itemStore) {
+        this.items = itemStore;
         this.storageManager = storageManager;
         this.categoryManager = new CategoryManager();
+        this.dirtyItems = new LinkedHashMap<>();
         
         // Initialiser les stratégies
         this.addStrategy = new AddItemStrategy();
@@ -51,25 +106,216 @@ public class GroceryManager {
      * @throws IOException en cas d'erreur de lecture
      */
     public void loadGroceryList(String fileName) throws IOException {
-        List<GroceryItem> loadedItems = storageManager.loadGroceryList(fileName);
+        // Relevée avant la lecture : une écriture pendant le chargement sera détectée
+        List<FileStamp> stamps = storageManager.getFileStamps(fileName);
+        List<GroceryItem> loadedItems = readGroceryList(fileName);
         
+        lock.writeLock().lock();
+        try {
+            replaceItems(loadedItems);
+            dirtyItems.clear();
+            sourceFileName = fileName;
+            sourceStamps = stamps;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Lit la liste depuis le stockage, en mesurant la durée du chargement.
+     */
+    private List<GroceryItem> readGroceryList(String fileName) throws IOException {
+        long start = System.nanoTime();
+        try {
+            return storageManager.loadGroceryList(fileName);
+        } finally {
+            LOAD_LATENCY.recordSince(start);
+        }
+    }
+
+    /**
+     * Remplace tous les articles par ceux chargés ; appelée sous le verrou d'écriture.
+     */
+    private void replaceItems(List<GroceryItem> loadedItems) {
+        // Dédoublonner par nom : la dernière occurrence l'emporte,
+        // à la position de la première (comme pour les catégories)
         items.clear();
-        items.addAll(loadedItems);
+        loadedItems.forEach(items::put);
         
         // Mettre à jour les catégories
+        categoryManager.clear();
         loadedItems.forEach(item -> 
-            categoryManager.addItemToCategory(item.getName(), item.getCategory())
+            categoryManager.addItemToCategory(item.getName(), item.getCategory(), item.getQuantity())
         );
+        
+        version++;
     }
 
     /**
      * Sauvegarde la liste de courses dans un fichier.
+     * Si le fichier est celui qui a été chargé (ou déjà sauvegardé), la sauvegarde ne fait
+     * rien tant qu'aucun article n'a été modifié ; si le stockage le permet, seules les
+     * modifications sont alors écrites. Sinon, la liste complète est réécrite.
+     * <p>
+     * Les articles à écrire sont copiés sous le verrou, puis écrits sans le détenir : les
+     * modifications faites pendant l'écriture restent en attente pour la sauvegarde suivante.
+     * Les sauvegardes s'exécutent l'une après l'autre ; l'appelant ne doit pas détenir
+     * le verrou renvoyé par {@link #lock()}.
+     * <p>
+     * Si le fichier a été réécrit depuis le chargement, par exemple par un autre processus entre
+     * deux sauvegardes d'un serveur, la liste est d'abord rechargée et les modifications en attente
+     * y sont réappliquées : la sauvegarde n'écrase pas ses ajouts. Le fichier doit alors être
+     * verrouillé en exclusion par l'appelant ({@link com.fges.storage.FileLockManager}).
      *
      * @param fileName le nom du fichier où sauvegarder
      * @throws IOException en cas d'erreur d'écriture
      */
     public void saveGroceryList(String fileName) throws IOException {
-        storageManager.saveGroceryList(items, fileName);
+        saveLock.lock();
+        try {
+            mergeExternalChanges(fileName);
+            
+            boolean incremental;
+            List<ItemChange> changes;
+            List<GroceryItem> snapshot = null;
+            lock.readLock().lock();
+            try {
+                boolean sameFile = fileName.equals(sourceFileName);
+                if (sameFile && dirtyItems.isEmpty()) {
+                    return;
+                }
+                incremental = sameFile && storageManager instanceof IncrementalStorageManager;
+                changes = new ArrayList<>(dirtyItems.values());
+                if (!incremental) {
+                    snapshot = items.toList();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            
+            writeGroceryList(fileName, incremental ? changes : null, snapshot);
+            List<FileStamp> stamps = storageManager.getFileStamps(fileName);
+            
+            lock.writeLock().lock();
+            try {
+                // Ne retirer que les modifications écrites, pas celles faites depuis la copie
+                for (ItemChange change : changes) {
+                    if (dirtyItems.get(change.name()) == change) {
+                        dirtyItems.remove(change.name());
+                    }
+                }
+                sourceFileName = fileName;
+                sourceStamps = stamps;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            saveLock.unlock();
+        }
+    }
+
+    /**
+     * Recharge la liste si le fichier source a changé depuis le dernier chargement ou la dernière
+     * sauvegarde, puis réapplique les modifications en attente ; appelée sous saveLock.
+     */
+    private void mergeExternalChanges(String fileName) throws IOException {
+        List<FileStamp> knownStamps;
+        lock.readLock().lock();
+        try {
+            // Rien à préserver si aucune modification n'est en attente
+            if (!fileName.equals(sourceFileName) || dirtyItems.isEmpty()) {
+                return;
+            }
+            knownStamps = sourceStamps;
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        List<FileStamp> stamps = storageManager.getFileStamps(fileName);
+        if (stamps.equals(knownStamps)) {
+            return;
+        }
+        List<GroceryItem> loadedItems = readGroceryList(fileName);
+        
+        lock.writeLock().lock();
+        try {
+            Map<String, GroceryItem> merged = new LinkedHashMap<>();
+            loadedItems.forEach(item -> merged.put(item.getName(), item));
+            // Comme lors d'une modification, un article modifié passe en fin de liste
+            for (ItemChange change : dirtyItems.values()) {
+                merged.remove(change.name());
+                if (!change.isRemoval()) {
+                    merged.put(change.name(), change.item());
+                }
+            }
+            replaceItems(new ArrayList<>(merged.values()));
+            sourceStamps = stamps;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Écrit les modifications, ou la liste complète si {@code changes} est null ;
+     * appelée sans le verrou de la liste.
+     */
+    private void writeGroceryList(String fileName, List<ItemChange> changes, List<GroceryItem> snapshot)
+            throws IOException {
+        long start = System.nanoTime();
+        if (changes != null) {
+            try {
+                ((IncrementalStorageManager) storageManager).appendChanges(changes, fileName);
+            } finally {
+                APPEND_LATENCY.recordSince(start);
+            }
+        } else {
+            try {
+                storageManager.saveGroceryList(snapshot, fileName);
+            } finally {
+                SAVE_LATENCY.recordSince(start);
+            }
+        }
+    }
+
+    /**
+     * Indique si des articles ont été modifiés depuis le dernier chargement ou la dernière sauvegarde.
+     *
+     * @return true si la liste doit être sauvegardée
+     */
+    public boolean isDirty() {
+        return read(() -> !dirtyItems.isEmpty());
+    }
+
+    /**
+     * Retourne le numéro de version de la liste, incrémenté à chaque modification effective
+     * et à chaque chargement. Deux lectures du même numéro voient la même liste.
+     * La lecture ne prend pas de verrou.
+     *
+     * @return le numéro de version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Retourne le verrou protégeant la liste, à prendre pour parcourir les vues paresseuses
+     * ou pour enchaîner plusieurs opérations de façon atomique. Le verrou est réentrant,
+     * mais le verrou d'écriture ne peut pas être pris par un thread qui détient celui de lecture.
+     *
+     * @return le verrou de lecture et d'écriture
+     */
+    public ReadWriteLock lock() {
+        return lock;
+    }
+
+    /**
+     * Récupère les modifications non encore sauvegardées, une par article modifié,
+     * dans l'ordre de leur dernière modification.
+     *
+     * @return les modifications en attente
+     */
+    public List<ItemChange> getPendingChanges() {
+        return read(() -> new ArrayList<>(dirtyItems.values()));
     }
 
     /**
@@ -78,14 +324,15 @@ public class GroceryManager {
      *
      * @param name le nom de l'article
      * @param quantity la quantité à ajouter
-     * @param category la catégorie de l'article (peut être null)
+     * @param category la catégorie de l'article (null pour conserver celle d'un article existant)
+     * @return la nouvelle version de l'article
      * @throws IllegalArgumentException si les paramètres sont invalides
      * @throws IOException en cas d'erreur lors de la mise à jour
      */
-    public void addItem(String name, int quantity, String category) throws IllegalArgumentException, IOException {
+    public GroceryItem addItem(String name, int quantity, String category)
+            throws IllegalArgumentException, IOException {
         try {
-            items = addStrategy.execute(items, name, quantity, category);
-            categoryManager.addItemToCategory(name, category);
+            return applyStrategy(addStrategy, ADD_METRICS, name, quantity, category);
         } catch (IllegalArgumentException e) {
             throw e; // Propager directement les exceptions de validation
         } catch (Exception e) {
@@ -100,8 +347,7 @@ public class GroceryManager {
      * @throws Exception si l'article n'existe pas
      */
     public void removeItem(String name) throws Exception {
-        items = removeStrategy.execute(items, name, 0, null);
-        categoryManager.removeItem(name);
+        applyStrategy(removeStrategy, REMOVE_METRICS, name, 0, null);
     }
 
     /**
@@ -113,11 +359,7 @@ public class GroceryManager {
      * @throws Exception si l'article n'existe pas
      */
     public void updateItem(String name, int newQuantity, String newCategory) throws Exception {
-        items = updateStrategy.execute(items, name, newQuantity, newCategory);
-        
-        if (newCategory != null) {
-            categoryManager.addItemToCategory(name, newCategory);
-        }
+        applyStrategy(updateStrategy, UPDATE_METRICS, name, newQuantity, newCategory);
     }
 
     /**
@@ -127,7 +369,7 @@ public class GroceryManager {
      * @return true si l'article existe, false sinon
      */
     public boolean doesItemExist(String name) {
-        return getItemByName(name) != null;
+        return getItem(name) != null;
     }
 
     /**
@@ -137,7 +379,7 @@ public class GroceryManager {
      * @return la quantité de l'article, ou 0 s'il n'existe pas
      */
     public int getItemQuantity(String name) {
-        GroceryItem item = getItemByName(name);
+        GroceryItem item = getItem(name);
         return item != null ? item.getQuantity() : 0;
     }
 
@@ -148,7 +390,7 @@ public class GroceryManager {
      * @return la catégorie de l'article, ou "default" s'il n'existe pas
      */
     public String getItemCategory(String name) {
-        GroceryItem item = getItemByName(name);
+        GroceryItem item = getItem(name);
         return item != null ? item.getCategory() : "default";
     }
 
@@ -159,7 +401,7 @@ public class GroceryManager {
      * @return true si la catégorie existe, false sinon
      */
     public boolean categoryExists(String category) {
-        return categoryManager.categoryExists(category);
+        return read(() -> categoryManager.categoryExists(category));
     }
 
     /**
@@ -169,14 +411,55 @@ public class GroceryManager {
      * @return la liste des articles dans cette catégorie (formatés en chaînes)
      */
     public List<String> getItemsInCategory(String category) {
+        return read(() -> formatItemsInCategory(category));
+    }
+
+    /**
+     * Met en forme les articles d'une catégorie ; appelée sous le verrou de lecture.
+     */
+    private List<String> formatItemsInCategory(String category) {
         List<String> itemNames = categoryManager.getItemsInCategory(category);
         
-        return itemNames.stream()
-                .map(name -> {
-                    GroceryItem item = getItemByName(name);
-                    return item != null ? item.toString() : name;
-                })
-                .collect(Collectors.toList());
+        List<String> result = new ArrayList<>(itemNames.size());
+        for (String name : itemNames) {
+            GroceryItem item = items.get(name);
+            result.add(item != null ? item.toString() : name);
+        }
+        return result;
+    }
+
+    /**
+     * Récupère les catégories contenant au moins un article, dans l'ordre de leur première apparition.
+     *
+     * @return les noms des catégories non vides
+     */
+    public List<String> getCategories() {
+        return read(categoryManager::getNonEmptyCategories);
+    }
+
+    /**
+     * Parcourt les articles d'une catégorie un par un, sans construire de liste intermédiaire.
+     * La liste ne doit pas être modifiée pendant le parcours : l'appelant concurrent prend le
+     * verrou de lecture ({@link #lock()}).
+     *
+     * @param category le nom de la catégorie
+     * @return les articles de cette catégorie
+     */
+    public Iterable<GroceryItem> itemsInCategory(String category) {
+        Iterable<String> itemNames = categoryManager.itemsInCategory(category);
+        return () -> new Iterator<>() {
+            private final Iterator<String> names = itemNames.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return names.hasNext();
+            }
+
+            @Override
+            public GroceryItem next() {
+                return items.get(names.next());
+            }
+        };
     }
 
     /**
@@ -185,11 +468,68 @@ public class GroceryManager {
      * @param name le nom de l'article
      * @return l'article correspondant, ou null s'il n'existe pas
      */
-    private GroceryItem getItemByName(String name) {
-        return items.stream()
-                .filter(item -> item.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    public GroceryItem getItem(String name) {
+        return read(() -> items.get(name));
+    }
+
+    /**
+     * Applique une stratégie à l'article concerné, sans copier la liste.
+     * L'article modifié est replacé en fin de liste et marqué comme modifié ; s'il n'a plus
+     * de version, il est retiré. Les catégories et leurs agrégats sont mis à jour en même temps.
+     * En cas d'échec de la stratégie, ou si l'article est inchangé, la liste reste inchangée
+     * et rien n'est à sauvegarder.
+     *
+     * @param strategy la stratégie à appliquer
+     * @param metrics la durée et les échecs de l'opération, attente du verrou comprise
+     * @param name le nom de l'article
+     * @param quantity la quantité passée à la stratégie
+     * @param category la catégorie passée à la stratégie
+     * @return la nouvelle version de l'article, ou null s'il a été supprimé
+     * @throws Exception si la stratégie échoue
+     */
+    private GroceryItem applyStrategy(ItemOperationStrategy strategy, OperationMetrics metrics,
+                                      String name, int quantity, String category) throws Exception {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            GroceryItem current = items.get(name);
+            GroceryItem next = strategy.apply(current, name, quantity, category);
+            
+            if (isUnchanged(current, next)) {
+                return current;
+            }
+            
+            if (current != null) {
+                items.remove(name);
+            }
+            // Retirer l'ancienne modification pour conserver l'ordre des dernières modifications
+            dirtyItems.remove(name);
+            if (next != null) {
+                items.put(next);
+                categoryManager.addItemToCategory(name, next.getCategory(), next.getQuantity());
+                dirtyItems.put(name, ItemChange.upsert(next));
+            } else {
+                categoryManager.removeItem(name);
+                dirtyItems.put(name, ItemChange.removal(name));
+            }
+            version++;
+            return next;
+        } catch (Exception e) {
+            metrics.errors().increment();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+            metrics.latency().recordSince(start);
+        }
+    }
+
+    /**
+     * Vérifie si une stratégie a laissé l'article dans son état actuel.
+     */
+    private static boolean isUnchanged(GroceryItem current, GroceryItem next) {
+        return current != null && next != null
+                && current.getQuantity() == next.getQuantity()
+                && current.getCategory().equals(next.getCategory());
     }
 
     /**
@@ -198,19 +538,61 @@ public class GroceryManager {
      * @return un mapping des catégories vers leurs articles (formatés en chaînes)
      */
     public Map<String, List<String>> getGroceryListByCategory() {
-        Map<String, List<GroceryItem>> itemsByCategory = items.stream()
-                .collect(Collectors.groupingBy(GroceryItem::getCategory));
-        
-        Map<String, List<String>> result = new HashMap<>();
-        itemsByCategory.forEach((category, categoryItems) -> {
-            List<String> formattedItems = categoryItems.stream()
-                    .map(GroceryItem::toString)
-                    .collect(Collectors.toList());
-            
-            result.put(category, formattedItems);
+        return read(() -> {
+            // Les catégories sont déjà regroupées : le coût ne dépend que de la taille du résultat
+            Map<String, List<String>> result = new LinkedHashMap<>();
+            for (String category : categoryManager.getNonEmptyCategories()) {
+                result.put(category, formatItemsInCategory(category));
+            }
+            return result;
         });
-        
-        return result;
+    }
+
+    /**
+     * Récupère le nombre d'articles et la quantité totale de chaque catégorie non vide,
+     * tenus à jour à chaque modification.
+     *
+     * @return les statistiques des catégories, dans l'ordre de leur première apparition
+     */
+    public List<CategoryStats> getCategoryStats() {
+        return read(categoryManager::getCategoryStats);
+    }
+
+    /**
+     * Récupère le nombre d'articles et la quantité totale d'une catégorie.
+     *
+     * @param category le nom de la catégorie
+     * @return les statistiques de la catégorie (vides si elle n'existe pas)
+     */
+    public CategoryStats getCategoryStats(String category) {
+        return read(() -> categoryManager.getCategoryStats(category));
+    }
+
+    /**
+     * Parcourt tous les articles dans l'ordre d'insertion, sans copie ni mise en forme.
+     * Le verrou de lecture est tenu pendant tout le parcours : l'action ne doit pas modifier la liste.
+     *
+     * @param action l'action appliquée à chaque article
+     */
+    public void forEachItem(Consumer<? super GroceryItem> action) {
+        lock.readLock().lock();
+        try {
+            items.forEach(action);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retourne une vue non modifiable de tous les articles, dans l'ordre d'insertion.
+     * Contrairement à {@link #getItems()}, rien n'est copié : la vue suit les modifications
+     * de la liste et se parcourt aussi par {@code spliterator()} ou {@code stream()}.
+     * L'appelant concurrent la parcourt sous le verrou de lecture ({@link #lock()}).
+     *
+     * @return la vue des articles
+     */
+    public Collection<GroceryItem> itemsView() {
+        return items.asCollection();
     }
 
     /**
@@ -219,6 +601,40 @@ public class GroceryManager {
      * @return la liste de tous les articles
      */
     public List<GroceryItem> getItems() {
-        return new ArrayList<>(items);
+        return read(items::toList);
+    }
+
+    /**
+     * Retourne l'histogramme des durées d'une opération de stockage.
+     */
+    private static LatencyHistogram storageLatency(String operation) {
+        return MetricsRegistry.getDefault().histogram("grocery_storage_duration_seconds",
+                "Durée des chargements et sauvegardes de la liste", "operation", operation);
+    }
+
+    /**
+     * Durée et nombre d'échecs d'une opération sur les articles.
+     */
+    private record OperationMetrics(LatencyHistogram latency, Counter errors) {
+        static OperationMetrics of(String operation) {
+            MetricsRegistry registry = MetricsRegistry.getDefault();
+            return new OperationMetrics(
+                    registry.histogram("grocery_item_operation_duration_seconds",
+                            "Durée des opérations sur les articles", "operation", operation),
+                    registry.counter("grocery_item_operation_errors_total",
+                            "Opérations sur les articles refusées ou en échec", "operation", operation));
+        }
+    }
+
+    /**
+     * Exécute une lecture sous le verrou de lecture.
+     */
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 } 
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.fges.model;
+
+/**
+ * Modification unitaire de la liste de courses.
+ * Porte le nouvel état de l'article, ou aucun article s'il a été supprimé.
+ *
+ * @param name le nom de l'article concerné
+ * @param item le nouvel état de l'article, ou null si l'article a été supprimé
+ */
+public record ItemChange(String name, GroceryItem item) {
+
+    /**
+     * Crée une modification enregistrant le nouvel état d'un article.
+     *
+     * @param item l'article ajouté ou mis à jour
+     * @return la modification
+     */
+    public static ItemChange upsert(GroceryItem item) {
+        return new ItemChange(item.getName(), item);
+    }
+
+    /**
+     * Crée une modification enregistrant la suppression d'un article.
+     *
+     * @param name le nom de l'article supprimé
+     * @return la modification
+     */
+    public static ItemChange removal(String name) {
+        return new ItemChange(name, null);
+    }
+
+    /**
+     * Indique si cette modification supprime l'article.
+     *
+     * @return true si l'article a été supprimé
+     */
+    public boolean isRemoval() {
+        return item == null;
+    }
+}
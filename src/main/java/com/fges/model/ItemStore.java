@@ -0,0 +1,83 @@
+package com.fges.model;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Stockage en mémoire des articles d'une liste de courses, indexés par nom et parcourus
+ * dans l'ordre d'insertion.
+ * <p>
+ * Les implémentations ne sont pas thread-safe et ne doivent pas être modifiées pendant un parcours.
+ */
+public interface ItemStore extends Iterable<GroceryItem> {
+    /**
+     * Récupère un article par son nom.
+     *
+     * @param name le nom de l'article
+     * @return l'article, ou null s'il n'existe pas
+     */
+    GroceryItem get(String name);
+
+    /**
+     * Enregistre un article : un article du même nom est remplacé à sa position,
+     * sinon l'article est ajouté en fin de liste.
+     *
+     * @param item l'article à enregistrer
+     */
+    void put(GroceryItem item);
+
+    /**
+     * Supprime un article.
+     *
+     * @param name le nom de l'article
+     * @return true si l'article existait
+     */
+    boolean remove(String name);
+
+    /**
+     * Supprime tous les articles.
+     */
+    void clear();
+
+    /**
+     * Retourne le nombre d'articles.
+     *
+     * @return le nombre d'articles
+     */
+    int size();
+
+    /**
+     * Copie les articles dans une nouvelle liste, dans l'ordre d'insertion.
+     *
+     * @return la liste des articles
+     */
+    default List<GroceryItem> toList() {
+        List<GroceryItem> result = new ArrayList<>(size());
+        forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Retourne une vue non modifiable des articles, sans les copier : elle suit les modifications
+     * du stockage et se parcourt dans l'ordre d'insertion.
+     *
+     * @return la vue des articles
+     */
+    default Collection<GroceryItem> asCollection() {
+        return Collections.unmodifiableCollection(new AbstractCollection<>() {
+            @Override
+            public Iterator<GroceryItem> iterator() {
+                return ItemStore.this.iterator();
+            }
+
+            @Override
+            public int size() {
+                return ItemStore.this.size();
+            }
+        });
+    }
+}
@@ -0,0 +1,25 @@
+package com.fges.model;
+
+/**
+ * Factory pour créer le stockage en mémoire des articles selon son type.
+ */
+public class ItemStoreFactory {
+    /**
+     * Crée un stockage d'articles du type spécifié.
+     *
+     * @param type le type de stockage (map, columnar ou offheap)
+     * @return le stockage approprié
+     * @throws IllegalArgumentException si le type n'est pas supporté
+     */
+    public static ItemStore createItemStore(String type) {
+        if ("map".equalsIgnoreCase(type)) {
+            return new LinkedItemStore();
+        } else if ("columnar".equalsIgnoreCase(type)) {
+            return new ColumnarItemStore();
+        } else if ("offheap".equalsIgnoreCase(type)) {
+            return new OffHeapItemStore();
+        } else {
+            throw new IllegalArgumentException("Stockage non supporté. Utilisez 'map', 'columnar' ou 'offheap'.");
+        }
+    }
+}
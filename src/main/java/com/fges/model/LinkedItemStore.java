@@ -0,0 +1,43 @@
+package com.fges.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stockage des articles dans une {@link LinkedHashMap} : un objet {@link GroceryItem} par article.
+ * C'est le stockage par défaut.
+ */
+public class LinkedItemStore implements ItemStore {
+    private final Map<String, GroceryItem> items = new LinkedHashMap<>();
+
+    @Override
+    public GroceryItem get(String name) {
+        return items.get(name);
+    }
+
+    @Override
+    public void put(GroceryItem item) {
+        items.put(item.getName(), item);
+    }
+
+    @Override
+    public boolean remove(String name) {
+        return items.remove(name) != null;
+    }
+
+    @Override
+    public void clear() {
+        items.clear();
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+
+    @Override
+    public Iterator<GroceryItem> iterator() {
+        return items.values().iterator();
+    }
+}
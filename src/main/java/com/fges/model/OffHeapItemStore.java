@@ -0,0 +1,348 @@
+package com.fges.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Stockage des articles hors du tas géré par le ramasse-miettes, pour les très grandes listes.
+ * <p>
+ * Trois zones de mémoire directe ({@link ByteBuffer#allocateDirect}) contiennent toutes les données :
+ * <pre>
+ * noms   : octets UTF-8 des noms, les uns à la suite des autres
+ * lignes : {@value #ROW_BYTES} octets par article : position du nom, longueur du nom, hachage du nom,
+ *          quantité, identifiant de catégorie ({@code short}, -1 pour une ligne supprimée)
+ * index  : table de hachage à adressage ouvert, un {@code int} par case : numéro de ligne + 1, 0 si vide
+ * </pre>
+ * Seul le dictionnaire des catégories, de petite taille, reste sur le tas. Le ramasse-miettes ne voit
+ * donc que quelques objets quelle que soit la taille de la liste ; les {@link GroceryItem} sont
+ * construits à la demande, à chaque lecture. Une zone pleine est recopiée dans une zone deux fois
+ * plus grande ; les lignes supprimées sont compactées lorsqu'elles deviennent majoritaires.
+ */
+public class OffHeapItemStore implements ItemStore {
+    private static final int ROW_BYTES = 20;
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 4;
+    private static final int NAME_HASH = 8;
+    private static final int QUANTITY = 12;
+    private static final int CATEGORY = 16;
+
+    private static final int INITIAL_ROWS = 1024;
+    private static final int MIN_COMPACTION_ROWS = 1024;
+    private static final long MAX_BUFFER_BYTES = Integer.MAX_VALUE - 8;
+    private static final short REMOVED = -1;
+
+    // Dictionnaire des catégories, sur le tas
+    private final Map<String, Short> categoryIds = new HashMap<>();
+    private final List<String> categoryNames = new ArrayList<>();
+
+    private ByteBuffer names = allocate(INITIAL_ROWS * 16L);
+    private int namesSize;
+
+    private ByteBuffer rows = allocate((long) INITIAL_ROWS * ROW_BYTES);
+    private int rowCount;
+    private int size;
+
+    private ByteBuffer index = allocate(INITIAL_ROWS * 2L * Integer.BYTES);
+    private int indexCapacity = INITIAL_ROWS * 2;
+
+    @Override
+    public GroceryItem get(String name) {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int entry = indexEntry(findPosition(encoded, name.hashCode()));
+        return entry != 0 ? view(entry - 1) : null;
+    }
+
+    @Override
+    public void put(GroceryItem item) {
+        String name = item.getName();
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int hash = name.hashCode();
+        short categoryId = internCategory(item.getCategory());
+
+        int position = findPosition(encoded, hash);
+        int entry = indexEntry(position);
+        if (entry != 0) {
+            int row = entry - 1;
+            rows.putInt(rowAddress(row) + QUANTITY, item.getQuantity());
+            rows.putShort(rowAddress(row) + CATEGORY, categoryId);
+            return;
+        }
+
+        int row = appendRow(encoded, hash, item.getQuantity(), categoryId);
+        setIndexEntry(position, row + 1);
+        size++;
+        if (size * 2L > indexCapacity) {
+            rebuildIndex(indexCapacity * 2);
+        }
+    }
+
+    @Override
+    public boolean remove(String name) {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int position = findPosition(encoded, name.hashCode());
+        int entry = indexEntry(position);
+        if (entry == 0) {
+            return false;
+        }
+        rows.putShort(rowAddress(entry - 1) + CATEGORY, REMOVED);
+        removeFromIndex(position);
+        size--;
+
+        int removedRows = rowCount - size;
+        if (removedRows >= MIN_COMPACTION_ROWS && removedRows > size) {
+            compact();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        for (int position = 0; position < indexCapacity; position++) {
+            setIndexEntry(position, 0);
+        }
+        namesSize = 0;
+        rowCount = 0;
+        size = 0;
+        // Sans quoi le dictionnaire grandirait à chaque rechargement
+        categoryIds.clear();
+        categoryNames.clear();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<GroceryItem> iterator() {
+        return new Iterator<>() {
+            private int nextRow = skipRemoved(0);
+
+            @Override
+            public boolean hasNext() {
+                return nextRow < rowCount;
+            }
+
+            @Override
+            public GroceryItem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                GroceryItem item = view(nextRow);
+                nextRow = skipRemoved(nextRow + 1);
+                return item;
+            }
+        };
+    }
+
+    /**
+     * Construit l'article correspondant à une ligne.
+     */
+    private GroceryItem view(int row) {
+        int address = rowAddress(row);
+        byte[] name = new byte[rows.getInt(address + NAME_LENGTH)];
+        names.get(rows.getInt(address + NAME_OFFSET), name);
+        return new GroceryItem(new String(name, StandardCharsets.UTF_8),
+                rows.getInt(address + QUANTITY), categoryNames.get(rows.getShort(address + CATEGORY)));
+    }
+
+    /**
+     * Retourne la première ligne occupée à partir de {@code row}, ou {@code rowCount}.
+     */
+    private int skipRemoved(int row) {
+        while (row < rowCount && rows.getShort(rowAddress(row) + CATEGORY) == REMOVED) {
+            row++;
+        }
+        return row;
+    }
+
+    /**
+     * Retourne l'identifiant d'une catégorie, en l'attribuant à sa première apparition.
+     */
+    private short internCategory(String category) {
+        Short existing = categoryIds.get(category);
+        if (existing != null) {
+            return existing;
+        }
+        if (categoryNames.size() > Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de catégories distinctes pour le stockage hors tas");
+        }
+        short categoryId = (short) categoryNames.size();
+        categoryIds.put(category, categoryId);
+        categoryNames.add(category);
+        return categoryId;
+    }
+
+    /**
+     * Ajoute une ligne et recopie le nom dans la zone des noms, en agrandissant les zones si nécessaire.
+     */
+    private int appendRow(byte[] name, int hash, int quantity, short categoryId) {
+        if ((rowCount + 1L) * ROW_BYTES > rows.capacity()) {
+            rows = grow(rows, (rowCount + 1L) * ROW_BYTES, rowCount * (long) ROW_BYTES);
+        }
+        if ((long) namesSize + name.length > names.capacity()) {
+            names = grow(names, (long) namesSize + name.length, namesSize);
+        }
+        names.put(namesSize, name);
+
+        int row = rowCount++;
+        int address = rowAddress(row);
+        rows.putInt(address + NAME_OFFSET, namesSize);
+        rows.putInt(address + NAME_LENGTH, name.length);
+        rows.putInt(address + NAME_HASH, hash);
+        rows.putInt(address + QUANTITY, quantity);
+        rows.putShort(address + CATEGORY, categoryId);
+        namesSize += name.length;
+        return row;
+    }
+
+    /**
+     * Retourne la case de l'index contenant l'article, ou la case vide où il serait inséré.
+     */
+    private int findPosition(byte[] name, int hash) {
+        int mask = indexCapacity - 1;
+        int position = bucket(hash, mask);
+        int entry;
+        while ((entry = indexEntry(position)) != 0 && !nameEquals(entry - 1, name, hash)) {
+            position = (position + 1) & mask;
+        }
+        return position;
+    }
+
+    /**
+     * Compare le nom d'une ligne aux octets d'un nom, sans construire de String.
+     */
+    private boolean nameEquals(int row, byte[] name, int hash) {
+        int address = rowAddress(row);
+        if (rows.getInt(address + NAME_HASH) != hash || rows.getInt(address + NAME_LENGTH) != name.length) {
+            return false;
+        }
+        int offset = rows.getInt(address + NAME_OFFSET);
+        for (int i = 0; i < name.length; i++) {
+            if (names.get(offset + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Vide une case de l'index en y ramenant les entrées suivantes qui s'y trouvaient décalées,
+     * pour que les recherches par sondage linéaire restent correctes.
+     */
+    private void removeFromIndex(int position) {
+        int mask = indexCapacity - 1;
+        int hole = position;
+        int current = position;
+        while (true) {
+            current = (current + 1) & mask;
+            int entry = indexEntry(current);
+            if (entry == 0) {
+                break;
+            }
+            int home = bucket(rows.getInt(rowAddress(entry - 1) + NAME_HASH), mask);
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                setIndexEntry(hole, entry);
+                hole = current;
+            }
+        }
+        setIndexEntry(hole, 0);
+    }
+
+    /**
+     * Reconstruit l'index avec la capacité indiquée à partir des lignes occupées.
+     */
+    private void rebuildIndex(int capacity) {
+        if (capacity != indexCapacity) {
+            index = allocate((long) capacity * Integer.BYTES);
+            indexCapacity = capacity;
+        } else {
+            for (int position = 0; position < indexCapacity; position++) {
+                setIndexEntry(position, 0);
+            }
+        }
+        int mask = capacity - 1;
+        for (int row = 0; row < rowCount; row++) {
+            int address = rowAddress(row);
+            if (rows.getShort(address + CATEGORY) != REMOVED) {
+                int position = bucket(rows.getInt(address + NAME_HASH), mask);
+                while (indexEntry(position) != 0) {
+                    position = (position + 1) & mask;
+                }
+                setIndexEntry(position, row + 1);
+            }
+        }
+    }
+
+    /**
+     * Supprime les lignes vides et les noms correspondants, en conservant l'ordre des articles.
+     */
+    private void compact() {
+        int target = 0;
+        int namesTarget = 0;
+        for (int row = 0; row < rowCount; row++) {
+            int address = rowAddress(row);
+            if (rows.getShort(address + CATEGORY) == REMOVED) {
+                continue;
+            }
+            int nameOffset = rows.getInt(address + NAME_OFFSET);
+            int nameLength = rows.getInt(address + NAME_LENGTH);
+            // Les destinations précèdent toujours les sources : la copie octet par octet vers l'avant est sûre
+            for (int i = 0; i < nameLength; i++) {
+                names.put(namesTarget + i, names.get(nameOffset + i));
+            }
+
+            int targetAddress = rowAddress(target);
+            rows.putInt(targetAddress + NAME_OFFSET, namesTarget);
+            rows.putInt(targetAddress + NAME_LENGTH, nameLength);
+            rows.putInt(targetAddress + NAME_HASH, rows.getInt(address + NAME_HASH));
+            rows.putInt(targetAddress + QUANTITY, rows.getInt(address + QUANTITY));
+            rows.putShort(targetAddress + CATEGORY, rows.getShort(address + CATEGORY));
+            namesTarget += nameLength;
+            target++;
+        }
+        rowCount = target;
+        namesSize = namesTarget;
+        rebuildIndex(indexCapacity);
+    }
+
+    private int indexEntry(int position) {
+        return index.getInt(position * Integer.BYTES);
+    }
+
+    private void setIndexEntry(int position, int entry) {
+        index.putInt(position * Integer.BYTES, entry);
+    }
+
+    private static int rowAddress(int row) {
+        return row * ROW_BYTES;
+    }
+
+    private static int bucket(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Recopie les {@code used} premiers octets d'une zone dans une zone au moins deux fois plus grande.
+     */
+    private static ByteBuffer grow(ByteBuffer buffer, long required, long used) {
+        long capacity = Math.max(required, Math.min(buffer.capacity() * 2L, MAX_BUFFER_BYTES));
+        ByteBuffer grown = allocate(capacity);
+        grown.put(0, buffer, 0, (int) used);
+        return grown;
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        if (bytes > MAX_BUFFER_BYTES) {
+            throw new IllegalStateException("Capacité du stockage hors tas dépassée");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+}
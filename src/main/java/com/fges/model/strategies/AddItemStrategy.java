@@ -1,9 +1,6 @@
 package com.fges.model.strategies;
 
 import com.fges.model.GroceryItem;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
 
 /**
  * Stratégie pour ajouter un article à la liste de courses.
@@ -12,24 +9,13 @@ import java.util.Optional;
 public class AddItemStrategy implements ItemOperationStrategy {
     
     @Override
-    public List<GroceryItem> execute(List<GroceryItem> items, String itemName, int quantity, String category) throws Exception {
+    public GroceryItem apply(GroceryItem current, String itemName, int quantity, String category) throws Exception {
         validateInput(itemName, quantity);
         
-        // Copier la liste pour ne pas modifier l'originale
-        List<GroceryItem> result = new ArrayList<>(items);
-        
-        // Vérifier si l'article existe déjà
-        Optional<GroceryItem> existingItem = result.stream()
-                .filter(item -> item.getName().equals(itemName))
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            updateExistingItem(result, existingItem.get(), quantity, category);
-        } else {
-            addNewItem(result, itemName, quantity, category);
+        if (current != null) {
+            return updateExistingItem(current, quantity, category);
         }
-        
-        return result;
+        return addNewItem(itemName, quantity, category);
     }
     
     /**
@@ -48,24 +34,20 @@ public class AddItemStrategy implements ItemOperationStrategy {
     /**
      * Met à jour un article existant.
      */
-    private void updateExistingItem(List<GroceryItem> items, GroceryItem oldItem, int quantity, String category) {
-        // Supprimer l'ancien item
-        items.remove(oldItem);
-        
+    private GroceryItem updateExistingItem(GroceryItem oldItem, int quantity, String category) {
         // Calculer la nouvelle quantité
         int newQuantity = oldItem.getQuantity() + quantity;
         
         // Utiliser la catégorie spécifiée ou conserver l'ancienne
         String categoryToUse = category != null ? category : oldItem.getCategory();
         
-        // Ajouter le nouvel item avec les valeurs mises à jour
-        items.add(new GroceryItem(oldItem.getName(), newQuantity, categoryToUse));
+        return new GroceryItem(oldItem.getName(), newQuantity, categoryToUse);
     }
     
     /**
-     * Ajoute un nouvel article.
+     * Crée un nouvel article.
      */
-    private void addNewItem(List<GroceryItem> items, String itemName, int quantity, String category) {
-        items.add(new GroceryItem(itemName, quantity, category));
+    private GroceryItem addNewItem(String itemName, int quantity, String category) {
+        return new GroceryItem(itemName, quantity, category);
     }
-} 
\ No newline at end of file
+}
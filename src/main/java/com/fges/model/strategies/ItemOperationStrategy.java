@@ -1,24 +1,27 @@
 package com.fges.model.strategies;
 
 import com.fges.model.GroceryItem;
-import java.util.List;
 
 /**
  * Interface définissant une stratégie d'opération sur les articles de la liste de courses.
  * Applique le pattern Stratégie pour découpler les différentes opérations de la classe GroceryManager.
+ * <p>
+ * Une stratégie ne manipule jamais la collection d'articles : elle reçoit la version actuelle
+ * de l'article concerné et retourne sa nouvelle version. Les articles étant immuables,
+ * toutes les versions de la liste partagent les articles non modifiés ; seul l'article
+ * concerné est recréé.
  */
 public interface ItemOperationStrategy {
     /**
-     * Exécute l'opération sur la liste d'articles.
-     * Cette méthode traite l'opération et retourne une nouvelle liste d'articles résultant de l'opération,
-     * sans modifier la liste d'entrée.
+     * Calcule la nouvelle version de l'article concerné par l'opération.
+     * Cette méthode ne modifie pas l'article reçu.
      *
-     * @param items liste actuelle d'articles (ne sera pas modifiée)
+     * @param current version actuelle de l'article, ou null s'il n'existe pas
      * @param itemName nom de l'article concerné par l'opération
      * @param quantity quantité (pour ajout/mise à jour d'articles, 0 si non applicable)
      * @param category catégorie (pour ajout/mise à jour d'articles, null si non applicable)
-     * @return une nouvelle liste d'articles après application de l'opération
+     * @return la nouvelle version de l'article, ou null si l'article doit être supprimé
      * @throws Exception si l'opération échoue (article introuvable, paramètres invalides, etc.)
      */
-    List<GroceryItem> execute(List<GroceryItem> items, String itemName, int quantity, String category) throws Exception;
-} 
\ No newline at end of file
+    GroceryItem apply(GroceryItem current, String itemName, int quantity, String category) throws Exception;
+}
@@ -1,9 +1,6 @@
 package com.fges.model.strategies;
 
 import com.fges.model.GroceryItem;
-import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Stratégie pour supprimer un article de la liste de courses.
@@ -11,28 +8,22 @@ import java.util.stream.Collectors;
 public class RemoveItemStrategy implements ItemOperationStrategy {
     
     @Override
-    public List<GroceryItem> execute(List<GroceryItem> items, String itemName, int quantity, String category) throws Exception {
-        validateItemExists(items, itemName);
+    public GroceryItem apply(GroceryItem current, String itemName, int quantity, String category) throws Exception {
+        validateItemExists(current, itemName);
         
         if (category != null) {
-            validateItemInCategory(items, itemName, category);
+            validateItemInCategory(current, itemName, category);
         }
         
-        // Filtrer l'article à supprimer
-        return items.stream()
-                .filter(item -> !item.getName().equals(itemName))
-                .collect(Collectors.toList());
+        // Aucune nouvelle version : l'article est supprimé
+        return null;
     }
     
     /**
      * Vérifie que l'article existe.
      */
-    private void validateItemExists(List<GroceryItem> items, String itemName) throws Exception {
-        Optional<GroceryItem> item = items.stream()
-                .filter(i -> i.getName().equals(itemName))
-                .findFirst();
-                
-        if (!item.isPresent()) {
+    private void validateItemExists(GroceryItem current, String itemName) throws Exception {
+        if (current == null) {
             throw new Exception("Article non trouvé : " + itemName);
         }
     }
@@ -40,13 +31,9 @@ public class RemoveItemStrategy implements ItemOperationStrategy {
     /**
      * Vérifie que l'article appartient à la catégorie spécifiée.
      */
-    private void validateItemInCategory(List<GroceryItem> items, String itemName, String category) throws Exception {
-        boolean itemInCategory = items.stream()
-                .anyMatch(item -> item.getName().equals(itemName) && 
-                         item.getCategory().equals(category));
-        
-        if (!itemInCategory) {
+    private void validateItemInCategory(GroceryItem current, String itemName, String category) throws Exception {
+        if (!current.getCategory().equals(category)) {
             throw new Exception("L'article '" + itemName + "' n'existe pas dans la catégorie '" + category + "'");
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.fges.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Écriture atomique d'un fichier : le contenu est écrit dans un fichier temporaire du même
+ * répertoire, éventuellement forcé sur le disque, puis renommé à la place du fichier cible.
+ * <p>
+ * Le fichier cible contient donc toujours soit l'ancienne, soit la nouvelle version complète.
+ */
+public final class AtomicFileWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Écriture du contenu d'un fichier.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+        /**
+         * Écrit le contenu dans le flux fourni ; fermer ce flux ne ferme pas le fichier temporaire.
+         *
+         * @param output le flux du fichier temporaire
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        void write(OutputStream output) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Remplace atomiquement le contenu d'un fichier.
+     *
+     * @param target     le fichier à écrire
+     * @param durability le niveau de durabilité de l'écriture
+     * @param writer     l'écriture du contenu
+     * @throws IOException en cas d'erreur ; le fichier cible est alors inchangé
+     */
+    public static void write(Path target, DurabilityLevel durability, ContentWriter writer) throws IOException {
+        Path absoluteTarget = target.toAbsolutePath();
+        Path temp = absoluteTarget.resolveSibling("." + absoluteTarget.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                OutputStream output = new BufferedOutputStream(Channels.newOutputStream(channel));
+                // Le canal doit rester ouvert pour être forcé, même si l'écriture ferme le flux
+                writer.write(new FilterOutputStream(output) {
+                    @Override
+                    public void write(byte[] bytes, int offset, int length) throws IOException {
+                        out.write(bytes, offset, length);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        flush();
+                    }
+                });
+                output.flush();
+                if (durability.syncsData()) {
+                    channel.force(true);
+                }
+            }
+
+            move(temp, absoluteTarget);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        if (durability.syncsDirectory()) {
+            syncDirectory(absoluteTarget.getParent());
+        }
+    }
+
+    /**
+     * Renomme un fichier à la place d'un autre, atomiquement si le système de fichiers le permet.
+     *
+     * @param source le fichier à renommer
+     * @param target le fichier remplacé
+     * @throws IOException en cas d'erreur
+     */
+    public static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Synchronise un répertoire pour rendre durables les créations et renommages qu'il contient.
+     * Sans effet sur les systèmes qui ne permettent pas d'ouvrir un répertoire (Windows).
+     *
+     * @param directory le répertoire à synchroniser
+     * @throws IOException en cas d'erreur de synchronisation
+     */
+    public static void syncDirectory(Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // Répertoire impossible à ouvrir sur cette plateforme
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gestionnaire de stockage au format binaire compact.
+ * <p>
+ * Structure du fichier :
+ * <pre>
+ * en-tête     : "GROC" (4 octets), version (1 octet)
+ * catégories  : nombre (varint), puis pour chacune : longueur (varint), octets UTF-8
+ * articles    : nombre (varint), puis pour chacun :
+ *               longueur du nom (varint), octets UTF-8,
+ *               quantité (varint zigzag), indice de catégorie (varint)
+ * </pre>
+ * Chaque catégorie n'est écrite qu'une fois. Le fichier est projeté en mémoire ({@link FileChannel#map})
+ * et décodé directement depuis la projection, sans copie sur le tas ; il est construit en mémoire
+ * puis écrit atomiquement ({@link AtomicFileWriter}).
+ * Un fichier vide correspond à une liste vide.
+ */
+public class BinaryStorageManager implements StorageManager {
+    private static final byte[] MAGIC = {'G', 'R', 'O', 'C'};
+    private static final byte VERSION = 1;
+
+    private final DurabilityLevel durability;
+
+    /**
+     * Construit un gestionnaire de stockage binaire.
+     */
+    public BinaryStorageManager() {
+        this(DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un gestionnaire de stockage binaire.
+     *
+     * @param durability le niveau de durabilité des sauvegardes
+     */
+    public BinaryStorageManager(DurabilityLevel durability) {
+        this.durability = durability;
+    }
+
+    @Override
+    public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+        // Dictionnaire des catégories, dans l'ordre de première apparition
+        Map<String, Integer> categoryIndexes = new HashMap<>();
+        List<byte[]> categories = new ArrayList<>();
+        for (GroceryItem item : items) {
+            if (!categoryIndexes.containsKey(item.getCategory())) {
+                categoryIndexes.put(item.getCategory(), categories.size());
+                categories.add(item.getCategory().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        Encoder encoder = new Encoder(64 + items.size() * 16);
+        encoder.writeBytes(MAGIC);
+        encoder.writeByte(VERSION);
+
+        encoder.writeVarint(categories.size());
+        for (byte[] category : categories) {
+            encoder.writeVarint(category.length);
+            encoder.writeBytes(category);
+        }
+
+        encoder.writeVarint(items.size());
+        for (GroceryItem item : items) {
+            byte[] name = item.getName().getBytes(StandardCharsets.UTF_8);
+            encoder.writeVarint(name.length);
+            encoder.writeBytes(name);
+            encoder.writeVarint(zigzag(item.getQuantity()));
+            encoder.writeVarint(categoryIndexes.get(item.getCategory()));
+        }
+
+        AtomicFileWriter.write(Path.of(fileName), durability, encoder::writeTo);
+    }
+
+    @Override
+    public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Fichier binaire trop volumineux : " + fileName);
+            }
+            // La projection reste valide après la fermeture du canal
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (!buffer.hasRemaining()) {
+            return new ArrayList<>();
+        }
+
+        try {
+            return decode(buffer, fileName);
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Fichier binaire tronqué : " + fileName, e);
+        }
+    }
+
+    /**
+     * Décode le contenu complet d'un fichier binaire.
+     */
+    private List<GroceryItem> decode(ByteBuffer buffer, String fileName) throws IOException {
+        Decoder decoder = new Decoder(buffer);
+
+        if (!Arrays.equals(decoder.readBytes(MAGIC.length), MAGIC)) {
+            throw new IOException("Le fichier n'est pas une liste de courses binaire : " + fileName);
+        }
+        byte version = decoder.readByte();
+        if (version != VERSION) {
+            throw new IOException("Version de fichier binaire non supportée : " + version);
+        }
+
+        String[] categories = new String[decoder.readCount()];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = decoder.readString();
+        }
+
+        int itemCount = decoder.readCount();
+        List<GroceryItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            String name = decoder.readString();
+            int quantity = unzigzag(decoder.readVarint());
+            int categoryIndex = decoder.readVarint();
+            if (categoryIndex < 0 || categoryIndex >= categories.length) {
+                throw new IOException("Catégorie inconnue dans le fichier binaire : " + categoryIndex);
+            }
+            items.add(new GroceryItem(name, quantity, categories[categoryIndex]));
+        }
+        return items;
+    }
+
+    /**
+     * Encode un entier signé pour que les petites valeurs négatives restent courtes en varint.
+     */
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Opération inverse de {@link #zigzag(int)}.
+     */
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Tampon d'écriture extensible.
+     */
+    private static final class Encoder {
+        private byte[] data;
+        private int size;
+
+        Encoder(int initialCapacity) {
+            this.data = new byte[initialCapacity];
+        }
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            data[size++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Écrit un entier non signé sur 1 à 5 octets, 7 bits par octet.
+         */
+        void writeVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+        void writeTo(OutputStream output) throws IOException {
+            output.write(data, 0, size);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (size + additional > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + additional, data.length * 2));
+            }
+        }
+    }
+
+    /**
+     * Lecteur séquentiel du contenu d'un fichier ; un dépassement lève {@link IndexOutOfBoundsException}.
+     */
+    private static final class Decoder {
+        private final ByteBuffer data;
+        private final int limit;
+        private int position;
+
+        Decoder(ByteBuffer data) {
+            this.data = data;
+            this.limit = data.limit();
+        }
+
+        byte readByte() {
+            if (position >= limit) {
+                throw new IndexOutOfBoundsException(position);
+            }
+            return data.get(position++);
+        }
+
+        byte[] readBytes(int length) {
+            checkAvailable(length);
+            byte[] bytes = new byte[length];
+            data.get(position, bytes);
+            position += length;
+            return bytes;
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Entier mal encodé dans le fichier binaire");
+        }
+
+        /**
+         * Lit un nombre d'éléments ; chaque élément occupant au moins un octet,
+         * un nombre supérieur aux octets restants révèle un fichier tronqué ou corrompu.
+         */
+        int readCount() throws IOException {
+            int count = readVarint();
+            checkAvailable(count);
+            return count;
+        }
+
+        String readString() throws IOException {
+            return new String(readBytes(readVarint()), StandardCharsets.UTF_8);
+        }
+
+        private void checkAvailable(int length) {
+            if (length < 0 || length > limit - position) {
+                throw new IndexOutOfBoundsException(position + length);
+            }
+        }
+    }
+}
@@ -3,31 +3,78 @@ package com.fges.storage;
 import com.fges.model.GroceryItem;
 import com.fges.util.MessageFormatter;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Gestionnaire de stockage pour le format CSV.
+ * Les sauvegardes sont atomiques ({@link AtomicFileWriter}).
  */
 public class CsvStorageManager implements StorageManager {
     // Constants
     private static final String HEADER = "name,quantity,category";
     private static final String SEPARATOR = ",";
-    private static final int NAME_INDEX = 0;
-    private static final int QUANTITY_INDEX = 1;
-    private static final int CATEGORY_INDEX = 2;
-    private static final String DEFAULT_CATEGORY = "default";
+    private static final long DEFAULT_PARALLEL_LOAD_THRESHOLD = 32L * 1024 * 1024;
+
+    private final long parallelLoadThreshold;
+    private final DurabilityLevel durability;
+
+    /**
+     * Construit un gestionnaire CSV qui charge en parallèle les fichiers de plus de 32 Mio.
+     */
+    public CsvStorageManager() {
+        this(DEFAULT_PARALLEL_LOAD_THRESHOLD);
+    }
+
+    /**
+     * Construit un gestionnaire CSV avec un niveau de durabilité des sauvegardes spécifique.
+     *
+     * @param durability le niveau de durabilité des sauvegardes
+     */
+    public CsvStorageManager(DurabilityLevel durability) {
+        this(DEFAULT_PARALLEL_LOAD_THRESHOLD, durability);
+    }
+
+    /**
+     * Construit un gestionnaire CSV avec un seuil de chargement parallèle spécifique.
+     *
+     * @param parallelLoadThreshold taille de fichier, en octets, à partir de laquelle le chargement
+     *                              est réparti sur le pool fork-join commun ; {@link Long#MAX_VALUE}
+     *                              pour toujours charger séquentiellement
+     */
+    public CsvStorageManager(long parallelLoadThreshold) {
+        this(parallelLoadThreshold, DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un gestionnaire CSV.
+     *
+     * @param parallelLoadThreshold taille de fichier, en octets, à partir de laquelle le chargement est parallèle
+     * @param durability            le niveau de durabilité des sauvegardes
+     */
+    public CsvStorageManager(long parallelLoadThreshold, DurabilityLevel durability) {
+        this.parallelLoadThreshold = parallelLoadThreshold;
+        this.durability = durability;
+    }
 
     @Override
-    public void saveGroceryList(List<GroceryItem> items, String fileName) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+    public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+        AtomicFileWriter.write(Path.of(fileName), durability, output -> writeItems(items, output));
+    }
+
+    /**
+     * Écrit l'en-tête et les articles au format CSV dans le flux fourni.
+     */
+    private void writeItems(Collection<GroceryItem> items, OutputStream output) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
             // Écrire l'en-tête
             writer.write(HEADER);
             writer.newLine();
@@ -44,97 +91,21 @@ public class CsvStorageManager implements StorageManager {
         }
     }
 
-    @Override
-    public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
-        List<GroceryItem> items = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            String line = reader.readLine();
-            
-            // Si le fichier est vide, retourner une liste vide
-            if (line == null) {
-                return items;
-            }
-            
-            // Vérifier si nous avons un fichier au nouveau format avec en-tête
-            boolean isNewFormat = HEADER.equalsIgnoreCase(line.trim());
-            
-            // Si c'est l'ancien format, revenir au début du fichier
-            if (!isNewFormat) {
-                reader.close();
-                return loadOldFormat(fileName);
-            }
-            
-            // Lire les articles
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
-                
-                // Analyser la ligne
-                String[] parts = line.split(SEPARATOR, -1); // -1 pour garder les champs vides
-                
-                if (parts.length >= 3) {
-                    String name = unescapeCSV(parts[NAME_INDEX]);
-                    int quantity;
-                    try {
-                        quantity = Integer.parseInt(parts[QUANTITY_INDEX]);
-                    } catch (NumberFormatException e) {
-                        // Ignorer les articles avec des quantités non valides
-                        continue;
-                    }
-                    
-                    String category = parts.length > CATEGORY_INDEX && !parts[CATEGORY_INDEX].isEmpty() 
-                            ? unescapeCSV(parts[CATEGORY_INDEX]) 
-                            : DEFAULT_CATEGORY;
-                    
-                    items.add(new GroceryItem(name, quantity, category));
-                }
-            }
-        } catch (IOException e) {
-            // Si une erreur survient, essayer de charger au format ancien
-            return loadOldFormat(fileName);
-        }
-        
-        return items;
-    }
-    
     /**
-     * Charge la liste de courses à partir d'un fichier CSV au format ancien (sans en-tête).
-     *
-     * @param fileName le nom du fichier
-     * @return la liste des articles
-     * @throws IOException en cas d'erreur de lecture
+     * {@inheritDoc}
+     * <p>
+     * Le fichier est projeté en mémoire et lu en une seule passe par {@link MappedCsvReader},
+     * qui détecte l'en-tête et l'ancien format sans relire le fichier. Au-delà du seuil de
+     * chargement parallèle, le fichier est analysé par tranches sur le pool fork-join commun.
      */
-    private List<GroceryItem> loadOldFormat(String fileName) throws IOException {
-        List<GroceryItem> items = new ArrayList<>();
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) {
-                    continue;
-                }
-                
-                String[] parts = line.split(SEPARATOR, 2);
-                if (parts.length >= 2) {
-                    String name = unescapeCSV(parts[0]);
-                    int quantity;
-                    try {
-                        quantity = Integer.parseInt(parts[1]);
-                    } catch (NumberFormatException e) {
-                        // Ignorer les articles avec des quantités non valides
-                        continue;
-                    }
-                    
-                    items.add(new GroceryItem(name, quantity));
-                }
-            }
+    @Override
+    public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+        Path file = Path.of(fileName);
+        MappedCsvReader reader = new MappedCsvReader();
+        if (Files.size(file) >= parallelLoadThreshold) {
+            return reader.readParallel(file, ForkJoinPool.commonPool());
         }
-        
-        return items;
+        return reader.read(file);
     }
     
     /**
@@ -154,23 +125,4 @@ public class CsvStorageManager implements StorageManager {
         
         return text;
     }
-    
-    /**
-     * Déséchappe les caractères spéciaux du format CSV.
-     *
-     * @param text le texte à désêchapper
-     * @return le texte désêchappé
-     */
-    private String unescapeCSV(String text) {
-        if (text == null) {
-            return "";
-        }
-        
-        if (text.startsWith("\"") && text.endsWith("\"")) {
-            text = text.substring(1, text.length() - 1);
-            text = text.replace("\"\"", "\"");
-        }
-        
-        return text;
-    }
-} 
\ No newline at end of file
+}
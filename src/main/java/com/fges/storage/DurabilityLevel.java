@@ -0,0 +1,49 @@
+package com.fges.storage;
+
+/**
+ * Niveau de durabilité des sauvegardes, du plus rapide au plus sûr.
+ * <p>
+ * Quel que soit le niveau, une sauvegarde écrit un fichier temporaire puis le renomme :
+ * un arrêt brutal du processus ne laisse jamais une liste à moitié écrite.
+ */
+public enum DurabilityLevel {
+    /**
+     * Aucune synchronisation : le système d'exploitation écrit les données quand il le souhaite.
+     * Une coupure de courant peut faire perdre les dernières sauvegardes.
+     */
+    NONE,
+
+    /**
+     * Le contenu du fichier est forcé sur le disque avant le renommage.
+     */
+    DATA,
+
+    /**
+     * Comme {@link #DATA}, et le répertoire est aussi synchronisé après le renommage,
+     * pour que le nouveau nom survive à une coupure de courant.
+     */
+    FULL;
+
+    /**
+     * Niveau utilisé lorsqu'aucun n'est précisé.
+     */
+    public static final DurabilityLevel DEFAULT = DATA;
+
+    /**
+     * Indique si le contenu des fichiers doit être forcé sur le disque.
+     *
+     * @return true pour {@link #DATA} et {@link #FULL}
+     */
+    public boolean syncsData() {
+        return this != NONE;
+    }
+
+    /**
+     * Indique si le répertoire doit être synchronisé après un renommage.
+     *
+     * @return true pour {@link #FULL}
+     */
+    public boolean syncsDirectory() {
+        return this == FULL;
+    }
+}
@@ -0,0 +1,295 @@
+package com.fges.storage;
+
+import com.fges.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Verrouillage consultatif d'une liste de courses entre processus.
+ * <p>
+ * Le verrou porte sur un fichier annexe {@code <fichier>.lock}, verrouillé avec {@link FileChannel#tryLock} :
+ * partagé pour les lectures, exclusif pour les modifications. L'acquisition est retentée jusqu'à
+ * l'expiration du délai. Le processus garde un seul canal par fichier de verrou ; ses threads
+ * s'excluent entre eux par un verrou lecture-écriture placé devant le verrou du système.
+ * <p>
+ * Les attentes sont comptabilisées pour savoir si la contention pèse sur la latence
+ * ({@link #getStatistics()}).
+ */
+public final class FileLockManager {
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final long MAX_RETRY_DELAY_MILLIS = 50;
+
+    private static final Map<Path, LockFile> lockFiles = new ConcurrentHashMap<>();
+
+    private static final LongAdder acquisitions = new LongAdder();
+    private static final LongAdder contendedAcquisitions = new LongAdder();
+    private static final LongAdder waitNanos = new LongAdder();
+    private static final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Relevé des compteurs de contention des verrous.
+     *
+     * @param acquisitions          le nombre de verrous acquis
+     * @param contendedAcquisitions le nombre d'acquisitions qui ont dû attendre
+     * @param waitNanos             le temps total passé à attendre les verrous, en nanosecondes
+     * @param timeouts              le nombre d'acquisitions abandonnées après le délai d'attente
+     */
+    public record LockStatistics(long acquisitions, long contendedAcquisitions, long waitNanos, long timeouts) {
+    }
+
+    /**
+     * Verrou détenu sur une liste ; le fermer le libère. Le fermer plusieurs fois est sans effet.
+     * <p>
+     * Il doit être fermé par le thread qui l'a acquis.
+     */
+    public static final class ListLock implements AutoCloseable {
+        private final LockFile lockFile;
+        private final Lock threadLock;
+        private final boolean shared;
+        private final long waitedNanos;
+        private boolean released;
+
+        private ListLock(LockFile lockFile, Lock threadLock, boolean shared, long waitedNanos) {
+            this.lockFile = lockFile;
+            this.threadLock = threadLock;
+            this.shared = shared;
+            this.waitedNanos = waitedNanos;
+        }
+
+        /**
+         * Indique si le verrou est partagé.
+         *
+         * @return true pour un verrou de lecture
+         */
+        public boolean isShared() {
+            return shared;
+        }
+
+        /**
+         * Retourne le temps passé à attendre ce verrou.
+         *
+         * @return le temps d'attente, en millisecondes
+         */
+        public long getWaitedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(waitedNanos);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (released) {
+                return;
+            }
+            released = true;
+            try {
+                lockFile.release();
+            } finally {
+                threadLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * État partagé par tous les verrous du processus sur un même fichier de verrou.
+     * <p>
+     * Le canal n'est jamais fermé : sous Linux, fermer n'importe quel canal sur le fichier libère
+     * tous les verrous que le processus y détient. Le verrou du système est pris par le premier
+     * détenteur et rendu par le dernier ; le verrou lecture-écriture garantit qu'un détenteur
+     * exclusif est seul.
+     */
+    private static final class LockFile {
+        private final Path path;
+        private final ReentrantReadWriteLock threads = new ReentrantReadWriteLock(true);
+        private final ReentrantLock state = new ReentrantLock();
+        private FileChannel channel;
+        private FileLock systemLock;
+        private int holders;
+
+        private LockFile(Path path) {
+            this.path = path;
+        }
+
+        /**
+         * Prend le verrou du système s'il n'est pas encore détenu par le processus.
+         *
+         * @return true s'il a fallu attendre
+         */
+        private boolean acquire(String fileName, boolean shared, long timeoutMillis, long start, long deadline)
+                throws IOException, InterruptedException {
+            boolean contended = false;
+            if (!state.tryLock()) {
+                contended = true;
+                if (!state.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw timeout(fileName, timeoutMillis, start);
+                }
+            }
+            try {
+                if (holders == 0) {
+                    if (channel == null || !channel.isOpen()) {
+                        channel = FileChannel.open(path,
+                                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                    }
+                    long retryDelayMillis = 1;
+                    while ((systemLock = tryLock(channel, shared)) == null) {
+                        contended = true;
+                        long remainingNanos = deadline - System.nanoTime();
+                        if (remainingNanos <= 0) {
+                            throw timeout(fileName, timeoutMillis, start);
+                        }
+                        Thread.sleep(Math.min(retryDelayMillis, TimeUnit.NANOSECONDS.toMillis(remainingNanos) + 1));
+                        retryDelayMillis = Math.min(retryDelayMillis * 2, MAX_RETRY_DELAY_MILLIS);
+                    }
+                }
+                holders++;
+                return contended;
+            } finally {
+                state.unlock();
+            }
+        }
+
+        /**
+         * Rend le verrou du système au départ du dernier détenteur.
+         */
+        private void release() throws IOException {
+            state.lock();
+            try {
+                if (--holders == 0) {
+                    FileLock lock = systemLock;
+                    systemLock = null;
+                    if (lock.isValid()) {
+                        lock.release();
+                    }
+                }
+            } finally {
+                state.unlock();
+            }
+        }
+    }
+
+    private FileLockManager() {
+    }
+
+    /**
+     * Acquiert un verrou partagé, pour lire la liste.
+     *
+     * @param fileName      le fichier de la liste
+     * @param timeoutMillis le délai d'attente maximal, en millisecondes
+     * @return le verrou acquis
+     * @throws IOException si le verrou n'a pas pu être acquis dans le délai
+     */
+    public static ListLock acquireShared(String fileName, long timeoutMillis) throws IOException {
+        return acquire(fileName, true, timeoutMillis);
+    }
+
+    /**
+     * Acquiert un verrou exclusif, pour modifier la liste.
+     *
+     * @param fileName      le fichier de la liste
+     * @param timeoutMillis le délai d'attente maximal, en millisecondes
+     * @return le verrou acquis
+     * @throws IOException si le verrou n'a pas pu être acquis dans le délai
+     */
+    public static ListLock acquireExclusive(String fileName, long timeoutMillis) throws IOException {
+        return acquire(fileName, false, timeoutMillis);
+    }
+
+    /**
+     * Retourne les statistiques de contention depuis le démarrage du processus.
+     *
+     * @return les compteurs de verrouillage
+     */
+    public static LockStatistics getStatistics() {
+        return new LockStatistics(acquisitions.sum(), contendedAcquisitions.sum(), waitNanos.sum(), timeouts.sum());
+    }
+
+    /**
+     * Expose les statistiques de contention dans un registre de métriques.
+     *
+     * @param registry le registre de métriques
+     */
+    public static void registerMetrics(MetricsRegistry registry) {
+        registry.counterFunction("grocery_file_lock_acquisitions_total",
+                "Verrous de fichier acquis", null, null, acquisitions::sum);
+        registry.counterFunction("grocery_file_lock_contended_acquisitions_total",
+                "Verrous de fichier acquis après une attente", null, null, contendedAcquisitions::sum);
+        registry.counterFunction("grocery_file_lock_wait_nanoseconds_total",
+                "Temps total d'attente des verrous de fichier", null, null, waitNanos::sum);
+        registry.counterFunction("grocery_file_lock_timeouts_total",
+                "Verrous de fichier abandonnés après le délai d'attente", null, null, timeouts::sum);
+    }
+
+    /**
+     * Acquiert d'abord le verrou entre threads du processus, puis le verrou du système,
+     * chacun jusqu'à l'expiration du délai.
+     */
+    private static ListLock acquire(String fileName, boolean shared, long timeoutMillis) throws IOException {
+        LockFile lockFile = lockFiles.computeIfAbsent(
+                Path.of(fileName + LOCK_SUFFIX).toAbsolutePath().normalize(), LockFile::new);
+        ReentrantReadWriteLock threads = lockFile.threads;
+        if (threads.isWriteLockedByCurrentThread() || threads.getReadHoldCount() > 0) {
+            timeouts.increment();
+            throw new IOException("Le fichier " + fileName + " est déjà verrouillé par ce thread");
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMillis));
+        Lock threadLock = shared ? threads.readLock() : threads.writeLock();
+        boolean contended = false;
+
+        try {
+            if (!threadLock.tryLock()) {
+                contended = true;
+                if (!threadLock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    throw timeout(fileName, timeoutMillis, start);
+                }
+            }
+            try {
+                contended |= lockFile.acquire(fileName, shared, timeoutMillis, start, deadline);
+            } catch (InterruptedException | IOException | RuntimeException e) {
+                threadLock.unlock();
+                throw e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Attente du verrou interrompue : " + fileName);
+        }
+
+        long waited = System.nanoTime() - start;
+        acquisitions.increment();
+        if (contended) {
+            contendedAcquisitions.increment();
+            waitNanos.add(waited);
+        }
+        return new ListLock(lockFile, threadLock, shared, contended ? waited : 0);
+    }
+
+    private static IOException timeout(String fileName, long timeoutMillis, long start) {
+        timeouts.increment();
+        waitNanos.add(System.nanoTime() - start);
+        return new IOException("Le fichier " + fileName + " est verrouillé par un autre processus"
+                + " (délai de " + timeoutMillis + " ms dépassé)");
+    }
+
+    /**
+     * Tente une fois d'acquérir le verrou du système.
+     */
+    private static FileLock tryLock(FileChannel channel, boolean shared) throws IOException {
+        try {
+            return channel.tryLock(0, Long.MAX_VALUE, shared);
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.fges.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Empreinte d'un fichier : identifiant, date de dernière modification et taille.
+ * <p>
+ * Deux empreintes différentes signalent que le fichier a été réécrit entre-temps, par exemple
+ * par un autre processus. Les sauvegardes atomiques remplacent le fichier par renommage :
+ * l'identifiant du fichier change alors même si la date et la taille sont identiques.
+ *
+ * @param fileKey       l'identifiant du fichier pour le système, ou null s'il n'en fournit pas
+ * @param modifiedNanos la date de dernière modification, en nanosecondes
+ * @param size          la taille, en octets
+ */
+public record FileStamp(Object fileKey, long modifiedNanos, long size) {
+    /**
+     * Empreinte d'un fichier absent.
+     */
+    public static final FileStamp MISSING = new FileStamp(null, -1, -1);
+
+    /**
+     * Relève l'empreinte d'un fichier.
+     *
+     * @param path le chemin du fichier
+     * @return l'empreinte du fichier, ou {@link #MISSING} s'il n'existe pas
+     * @throws IOException en cas d'erreur de lecture des attributs
+     */
+    public static FileStamp of(Path path) throws IOException {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new FileStamp(attributes.fileKey(), attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    attributes.size());
+        } catch (NoSuchFileException e) {
+            return MISSING;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.fges.storage;
+
+import com.fges.model.ItemChange;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Extension de {@link StorageManager} pour les formats capables de persister
+ * uniquement les modifications, sans réécrire toute la liste.
+ */
+public interface IncrementalStorageManager extends StorageManager {
+    /**
+     * Persiste une suite de modifications appliquées à la liste contenue dans le fichier.
+     * Les modifications sont appliquées dans l'ordre, après le contenu déjà persisté.
+     *
+     * @param changes  les modifications à persister, dans l'ordre où elles ont eu lieu
+     * @param fileName le nom du fichier de la liste
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    void appendChanges(List<ItemChange> changes, String fileName) throws IOException;
+}
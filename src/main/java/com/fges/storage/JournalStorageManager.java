@@ -0,0 +1,548 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.ItemChange;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gestionnaire de stockage journalisé.
+ * <p>
+ * La liste est conservée sous forme d'un instantané (écrit par un autre gestionnaire de stockage,
+ * JSON par défaut) et d'un journal en ajout seul, {@code <fichier>.journal}, contenant un
+ * enregistrement JSON par modification. Chaque modification coûte donc une écriture proportionnelle
+ * à l'article concerné, et non à la taille de la liste. Le chargement relit l'instantané puis rejoue
+ * le journal. Seule une dernière ligne inachevée est écartée ; un enregistrement illisible avant
+ * elle fait échouer le chargement, sans toucher au journal.
+ * <p>
+ * Lorsque le journal dépasse un seuil, il est compacté en arrière-plan : un nouvel instantané est
+ * écrit puis remplace l'ancien par renommage, et la partie du journal qu'il contient est retirée.
+ * La compaction détient le verrou exclusif du fichier ({@link FileLockManager}) : les autres
+ * processus ne modifient pas la liste pendant ce temps. Les compactions de toutes les instances
+ * s'exécutent sur un même thread, attendu une seule fois à l'arrêt de la JVM.
+ * Les enregistrements décrivant l'état complet d'un article, rejouer un journal déjà intégré à
+ * l'instantané est sans effet : une interruption en cours de compaction ne perd aucune donnée.
+ * <p>
+ * Une sauvegarde complète écrit d'abord le nouvel instantané à côté ({@code <fichier>.save}), puis
+ * met le journal de côté ({@code <fichier>.journal.old}) avant de substituer l'instantané : tant
+ * que le nouvel instantané n'est pas en place, l'ancien et son journal restent disponibles.
+ * <p>
+ * Le chargement ne modifie aucun fichier : il peut se faire sous le verrou partagé de la liste.
+ * Une sauvegarde interrompue ou une dernière ligne inachevée du journal sont réparées par
+ * l'écriture suivante, faite sous le verrou exclusif.
+ */
+public class JournalStorageManager implements IncrementalStorageManager {
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPACTION_SUFFIX = ".compact";
+    private static final String SAVE_SUFFIX = ".save";
+    private static final String RETIRED_JOURNAL_SUFFIX = JOURNAL_SUFFIX + ".old";
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 4L * 1024 * 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final long COMPACTION_LOCK_TIMEOUT_MILLIS = 10_000;
+
+    private static final String OPERATION_FIELD = "op";
+    private static final String NAME_FIELD = "name";
+    private static final String QUANTITY_FIELD = "quantity";
+    private static final String CATEGORY_FIELD = "category";
+    private static final String PUT_OPERATION = "put";
+    private static final String REMOVE_OPERATION = "remove";
+
+    // Partagés par toutes les instances : la fabrique en crée une par commande
+    private static final ReentrantLock journalLock = new ReentrantLock();
+    private static final Set<String> scheduledCompactions = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService compactionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "journal-compaction");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Par fichier, incrémenté à chaque sauvegarde complète, protégé par journalLock
+    private static final Map<String, Long> snapshotGenerations = new HashMap<>();
+
+    static {
+        // Laisser une compaction en cours se terminer avant l'arrêt de la JVM
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(JournalStorageManager::awaitCompactions, "journal-compaction-shutdown"));
+    }
+
+    private final StorageManager snapshotStorage;
+    private final long compactionThreshold;
+    private final DurabilityLevel durability;
+    private final JsonFactory jsonFactory;
+
+    /**
+     * Construit un gestionnaire journalisé avec un instantané JSON et le seuil de compaction par défaut.
+     */
+    public JournalStorageManager() {
+        this(DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un gestionnaire journalisé avec un instantané JSON et le seuil de compaction par défaut.
+     *
+     * @param durability le niveau de durabilité de l'instantané et des ajouts au journal
+     */
+    public JournalStorageManager(DurabilityLevel durability) {
+        this(new StreamingJsonStorageManager(durability), DEFAULT_COMPACTION_THRESHOLD, durability);
+    }
+
+    /**
+     * Construit un gestionnaire journalisé.
+     *
+     * @param snapshotStorage     le gestionnaire utilisé pour lire et écrire l'instantané
+     * @param compactionThreshold la taille du journal (en octets) au-delà de laquelle il est compacté
+     */
+    public JournalStorageManager(StorageManager snapshotStorage, long compactionThreshold) {
+        this(snapshotStorage, compactionThreshold, DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un gestionnaire journalisé.
+     *
+     * @param snapshotStorage     le gestionnaire utilisé pour lire et écrire l'instantané
+     * @param compactionThreshold la taille du journal (en octets) au-delà de laquelle il est compacté
+     * @param durability          le niveau de durabilité des ajouts au journal et des renommages
+     */
+    public JournalStorageManager(StorageManager snapshotStorage, long compactionThreshold, DurabilityLevel durability) {
+        this.snapshotStorage = snapshotStorage;
+        this.compactionThreshold = compactionThreshold;
+        this.durability = durability;
+        this.jsonFactory = new JsonFactory();
+        this.jsonFactory.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+        journalLock.lock();
+        try {
+            repair(fileName);
+
+            // L'instantané complet remplace le journal
+            snapshotGenerations.merge(fileName, 1L, Long::sum);
+            Path journal = journalPath(fileName);
+            if (!Files.exists(journal)) {
+                snapshotStorage.saveGroceryList(items, fileName);
+                return;
+            }
+
+            // Écrire l'instantané avant de toucher au journal, qui reste valable jusqu'au renommage
+            Path saved = Paths.get(fileName + SAVE_SUFFIX);
+            Path retiredJournal = Paths.get(fileName + RETIRED_JOURNAL_SUFFIX);
+            snapshotStorage.saveGroceryList(items, saved.toString());
+            AtomicFileWriter.move(journal, retiredJournal);
+            AtomicFileWriter.move(saved, Paths.get(fileName));
+            Files.delete(retiredJournal);
+            if (durability.syncsDirectory()) {
+                AtomicFileWriter.syncDirectory(Paths.get(fileName).toAbsolutePath().getParent());
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+        // Une sauvegarde complète interrompue après la mise de côté du journal a écrit
+        // un instantané complet, qui fait foi
+        Path saved = Paths.get(fileName + SAVE_SUFFIX);
+        boolean savedIsCurrent = Files.exists(Paths.get(fileName + RETIRED_JOURNAL_SUFFIX)) && Files.exists(saved);
+        Map<String, GroceryItem> items = loadSnapshot(savedIsCurrent ? saved.toString() : fileName);
+
+        // Une dernière ligne inachevée est ignorée ici, et retirée avant le prochain ajout
+        Path journal = journalPath(fileName);
+        if (Files.exists(journal)) {
+            try (InputStream input = new BufferedInputStream(Files.newInputStream(journal))) {
+                replay(input, items, Long.MAX_VALUE);
+            }
+        }
+
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * L'instantané et le journal, qui changent tous deux lors d'une écriture.
+     */
+    @Override
+    public List<FileStamp> getFileStamps(String fileName) throws IOException {
+        journalLock.lock();
+        try {
+            return List.of(FileStamp.of(Paths.get(fileName)), FileStamp.of(journalPath(fileName)));
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    @Override
+    public void appendChanges(List<ItemChange> changes, String fileName) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        byte[] records = encode(changes);
+        long journalSize;
+
+        journalLock.lock();
+        try {
+            repair(fileName);
+            try (FileOutputStream output = new FileOutputStream(journalPath(fileName).toFile(), true)) {
+                output.write(records);
+                if (durability.syncsData()) {
+                    output.getChannel().force(false);
+                }
+                journalSize = output.getChannel().size();
+            }
+        } finally {
+            journalLock.unlock();
+        }
+
+        if (journalSize > compactionThreshold) {
+            scheduleCompaction(fileName);
+        }
+    }
+
+    /**
+     * Compacte le journal : intègre son contenu actuel à un nouvel instantané,
+     * puis retire du journal les enregistrements intégrés. Le verrou exclusif du fichier est
+     * pris pendant toute la compaction ; l'appelant ne doit pas le détenir.
+     *
+     * @param fileName le nom du fichier de la liste
+     * @throws IOException en cas d'erreur de lecture ou d'écriture, ou si le verrou n'a pas pu être pris
+     */
+    public void compact(String fileName) throws IOException {
+        try (FileLockManager.ListLock ignored =
+                     FileLockManager.acquireExclusive(fileName, COMPACTION_LOCK_TIMEOUT_MILLIS)) {
+            compactLocked(fileName);
+        }
+    }
+
+    /**
+     * Compacte le journal ; appelée sous le verrou exclusif du fichier.
+     */
+    private void compactLocked(String fileName) throws IOException {
+        Path journal = journalPath(fileName);
+
+        // Les ajouts concurrents se font après cette position et seront conservés
+        long compactedLength;
+        long generation;
+        journalLock.lock();
+        try {
+            repair(fileName);
+            if (!Files.exists(journal)) {
+                return;
+            }
+            compactedLength = Files.size(journal);
+            generation = snapshotGenerations.getOrDefault(fileName, 0L);
+        } finally {
+            journalLock.unlock();
+        }
+
+        Map<String, GroceryItem> items = loadSnapshot(fileName);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(journal))) {
+            replay(input, items, compactedLength);
+        }
+
+        // Écrire le nouvel instantané à côté, puis le substituer à l'ancien par renommage
+        Path compacted = Paths.get(fileName + COMPACTION_SUFFIX);
+        snapshotStorage.saveGroceryList(items.values(), compacted.toString());
+
+        journalLock.lock();
+        try {
+            // Une sauvegarde complète entre-temps rend cette compaction obsolète
+            if (generation != snapshotGenerations.getOrDefault(fileName, 0L)) {
+                Files.deleteIfExists(compacted);
+                return;
+            }
+            AtomicFileWriter.move(compacted, Paths.get(fileName));
+            truncateJournalHead(journal, compactedLength);
+            if (durability.syncsDirectory()) {
+                AtomicFileWriter.syncDirectory(Paths.get(fileName).toAbsolutePath().getParent());
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    /**
+     * Remet les fichiers dans un état cohérent avant une écriture ; appelée sous journalLock,
+     * par les écritures, que l'appelant fait sous le verrou exclusif du fichier.
+     */
+    private void repair(String fileName) throws IOException {
+        recoverInterruptedSave(fileName);
+        truncateTornTail(journalPath(fileName));
+    }
+
+    /**
+     * Termine une sauvegarde complète interrompue : si le journal a été mis de côté, le nouvel
+     * instantané est complet et le remplace ; sinon, un instantané en cours d'écriture est abandonné.
+     */
+    private void recoverInterruptedSave(String fileName) throws IOException {
+        Path saved = Paths.get(fileName + SAVE_SUFFIX);
+        Path retiredJournal = Paths.get(fileName + RETIRED_JOURNAL_SUFFIX);
+        if (Files.exists(retiredJournal)) {
+            if (Files.exists(saved)) {
+                AtomicFileWriter.move(saved, Paths.get(fileName));
+            }
+            Files.deleteIfExists(retiredJournal);
+        } else {
+            Files.deleteIfExists(saved);
+        }
+    }
+
+    /**
+     * Planifie une compaction en arrière-plan, sauf si une compaction du même fichier est déjà prévue.
+     * Pendant l'arrêt de la JVM, la compaction est abandonnée : le journal reste valable et sera
+     * compacté après un prochain ajout.
+     */
+    private void scheduleCompaction(String fileName) {
+        if (!scheduledCompactions.add(fileName)) {
+            return;
+        }
+
+        try {
+            compactionExecutor.execute(() -> {
+                try {
+                    compact(fileName);
+                } catch (IOException e) {
+                    System.err.println("Erreur lors de la compaction du journal de " + fileName
+                            + " : " + e.getMessage());
+                } finally {
+                    scheduledCompactions.remove(fileName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            scheduledCompactions.remove(fileName);
+        }
+    }
+
+    /**
+     * Attend la fin des compactions en cours.
+     */
+    private static void awaitCompactions() {
+        compactionExecutor.shutdown();
+        try {
+            compactionExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Retire les {@code length} premiers octets du journal en conservant les enregistrements suivants.
+     */
+    private void truncateJournalHead(Path journal, long length) throws IOException {
+        long journalSize = Files.size(journal);
+        if (journalSize <= length) {
+            Files.delete(journal);
+            return;
+        }
+
+        Path remaining = Paths.get(journal + COMPACTION_SUFFIX);
+        try (FileChannel source = FileChannel.open(journal, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(remaining, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long position = length;
+            while (position < journalSize) {
+                position += source.transferTo(position, journalSize - position, target);
+            }
+            if (durability.syncsData()) {
+                target.force(true);
+            }
+        }
+        AtomicFileWriter.move(remaining, journal);
+    }
+
+    /**
+     * Retire une dernière ligne inachevée du journal, laissée par un ajout interrompu, pour que
+     * les ajouts suivants restent lisibles. Le journal est lu depuis sa fin.
+     */
+    private void truncateTornTail(Path journal) throws IOException {
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = size;
+            while (end > 0) {
+                int length = (int) Math.min(buffer.capacity(), end);
+                buffer.clear().limit(length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, end - length + buffer.position()) < 0) {
+                        throw new IOException("Lecture du journal interrompue : " + journal);
+                    }
+                }
+                for (int i = length - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        long validLength = end - length + i + 1;
+                        if (validLength < size) {
+                            channel.truncate(validLength);
+                        }
+                        return;
+                    }
+                }
+                end -= length;
+            }
+            // Aucune ligne complète
+            channel.truncate(0);
+        }
+    }
+
+    /**
+     * Encode les modifications en enregistrements JSON, un par ligne.
+     */
+    private byte[] encode(List<ItemChange> changes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (JsonGenerator generator = jsonFactory.createGenerator(buffer)) {
+            for (ItemChange change : changes) {
+                generator.writeStartObject();
+                if (change.isRemoval()) {
+                    generator.writeStringField(OPERATION_FIELD, REMOVE_OPERATION);
+                    generator.writeStringField(NAME_FIELD, change.name());
+                } else {
+                    GroceryItem item = change.item();
+                    generator.writeStringField(OPERATION_FIELD, PUT_OPERATION);
+                    generator.writeStringField(NAME_FIELD, item.getName());
+                    generator.writeNumberField(QUANTITY_FIELD, item.getQuantity());
+                    generator.writeStringField(CATEGORY_FIELD, item.getCategory());
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Rejoue sur les articles les enregistrements du journal commençant avant la limite donnée.
+     * Chaque enregistrement occupe une ligne : seule une dernière ligne inachevée, sans fin de
+     * ligne (écriture interrompue), est ignorée.
+     *
+     * @throws IOException si un enregistrement complet est illisible : le journal est corrompu
+     */
+    private void replay(InputStream input, Map<String, GroceryItem> items, long limit) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        long position = 0;
+        long lineStart = 0;
+        int read;
+        reading:
+        while (lineStart < limit && (read = input.read(buffer)) != -1) {
+            int from = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    line.write(buffer, from, i - from);
+                    applyRecord(line.toByteArray(), lineStart, items);
+                    line.reset();
+                    lineStart = position + i + 1;
+                    from = i + 1;
+                    if (lineStart >= limit) {
+                        break reading;
+                    }
+                }
+            }
+            line.write(buffer, from, read - from);
+            position += read;
+        }
+    }
+
+    /**
+     * Applique aux articles un enregistrement complet du journal ; une ligne vide est ignorée.
+     *
+     * @throws IOException si l'enregistrement est illisible
+     */
+    private void applyRecord(byte[] record, long offset, Map<String, GroceryItem> items) throws IOException {
+        String operation = null;
+        String name = null;
+        int quantity = 0;
+        String category = null;
+
+        try (JsonParser parser = jsonFactory.createParser(record)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw corruptRecord(offset);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case OPERATION_FIELD -> operation = parser.getValueAsString();
+                    case NAME_FIELD -> name = parser.getValueAsString();
+                    case QUANTITY_FIELD -> quantity = parser.getValueAsInt();
+                    case CATEGORY_FIELD -> category = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw corruptRecord(offset);
+            }
+        } catch (JsonProcessingException e) {
+            throw corruptRecord(offset);
+        }
+
+        if (name == null || !(PUT_OPERATION.equals(operation) || REMOVE_OPERATION.equals(operation))) {
+            throw corruptRecord(offset);
+        }
+
+        // Comme dans GroceryManager, un article modifié passe en fin de liste
+        items.remove(name);
+        if (PUT_OPERATION.equals(operation)) {
+            items.put(name, new GroceryItem(name, quantity, category));
+        }
+    }
+
+    private static IOException corruptRecord(long offset) {
+        return new IOException("Journal corrompu : enregistrement illisible à la position " + offset);
+    }
+
+    /**
+     * Charge l'instantané, indexé par nom. Un instantané absent correspond à une liste vide.
+     */
+    private Map<String, GroceryItem> loadSnapshot(String fileName) throws IOException {
+        Map<String, GroceryItem> items = new LinkedHashMap<>();
+        if (Files.exists(Paths.get(fileName))) {
+            for (GroceryItem item : snapshotStorage.loadGroceryList(fileName)) {
+                items.put(item.getName(), item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Retourne le chemin du journal associé à un fichier de liste.
+     */
+    private Path journalPath(String fileName) {
+        return Paths.get(fileName + JOURNAL_SUFFIX);
+    }
+}
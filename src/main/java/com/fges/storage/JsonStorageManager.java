@@ -6,37 +6,64 @@ import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * Gestionnaire de stockage pour le format JSON.
+ * Les sauvegardes sont atomiques ({@link AtomicFileWriter}).
  */
 public class JsonStorageManager implements StorageManager {
     private final Gson gson;
     private final Type itemsListType;
+    private final Type itemsCollectionType;
+    private final DurabilityLevel durability;
 
     /**
      * Construit un nouveau gestionnaire de stockage JSON.
      */
     public JsonStorageManager() {
+        this(DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un nouveau gestionnaire de stockage JSON.
+     *
+     * @param durability le niveau de durabilité des sauvegardes
+     */
+    public JsonStorageManager(DurabilityLevel durability) {
         this.gson = new GsonBuilder().setPrettyPrinting().create();
         this.itemsListType = new TypeToken<List<GroceryItem>>(){}.getType();
+        this.itemsCollectionType = new TypeToken<Collection<GroceryItem>>(){}.getType();
+        this.durability = durability;
     }
 
     @Override
-    public void saveGroceryList(List<GroceryItem> items, String fileName) throws IOException {
-        try (FileWriter writer = new FileWriter(fileName)) {
+    public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+        AtomicFileWriter.write(Path.of(fileName), durability, output -> writeItems(items, output));
+    }
+
+    /**
+     * Écrit les articles au format JSON dans le flux fourni.
+     */
+    private void writeItems(Collection<GroceryItem> items, OutputStream output) throws IOException {
+        try (Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
             // Pour la rétrocompatibilité avec l'ancien format qui n'avait pas de catégories,
             // nous devons gérer les catégories explicitement
             if (containsCategories(items)) {
                 // Nouveau format avec catégories
-                gson.toJson(items, writer);
+                // Type déclaré explicitement : Gson ignore les classes anonymes, comme les vues d'articles
+                gson.toJson(items, itemsCollectionType, writer);
             } else {
                 // Ancien format: liste de paires nom-quantité
                 Map<String, Integer> simpleItems = new HashMap<>();
@@ -87,7 +114,7 @@ public class JsonStorageManager implements StorageManager {
      * @param items la liste d'articles à vérifier
      * @return true si au moins un article a une catégorie différente de "default"
      */
-    private boolean containsCategories(List<GroceryItem> items) {
+    private boolean containsCategories(Collection<GroceryItem> items) {
         for (GroceryItem item : items) {
             if (!"default".equals(item.getCategory())) {
                 return true;
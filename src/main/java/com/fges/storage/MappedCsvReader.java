@@ -0,0 +1,586 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Lecteur CSV projetant le fichier en mémoire ({@link FileChannel#map}) et analysant directement les octets.
+ * <p>
+ * Seuls le nom et la catégorie de chaque article sont convertis en chaînes ; la quantité est lue
+ * chiffre par chiffre sans chaîne intermédiaire. Les guillemets sont respectés, y compris autour
+ * de virgules ou de retours à la ligne. La première ligne non vide détermine le format : l'en-tête
+ * {@code name,quantity,category} annonce le format actuel, toute autre ligne l'ancien format
+ * {@code nom,quantité} et est lue comme un article ; le fichier n'est donc parcouru qu'une fois.
+ * <p>
+ * Les fichiers plus grands que la fenêtre de projection sont lus par fenêtres successives,
+ * découpées en début de ligne. Les gros fichiers peuvent aussi être analysés par tranches
+ * en parallèle ({@link #readParallel}).
+ */
+final class MappedCsvReader {
+    static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte[] HEADER = "name,quantity,category".getBytes(StandardCharsets.US_ASCII);
+    private static final String DEFAULT_CATEGORY = "default";
+    private static final int NAME_INDEX = 0;
+    private static final int QUANTITY_INDEX = 1;
+    private static final int CATEGORY_INDEX = 2;
+    private static final int MAX_FIELDS = 3;
+    private static final int INCOMPLETE = -1;
+    private static final long INVALID_QUANTITY = Long.MIN_VALUE;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Début des articles dans le fichier et format détecté.
+     */
+    private record DataStart(long offset, boolean legacyFormat) {
+    }
+
+    // États du découpage en tranches, qui suivent les règles de parseLine
+    private static final int LINE_START = 0;
+    private static final int FIELD_START = 1;
+    private static final int UNQUOTED_FIELD = 2;
+    private static final int QUOTED_FIELD = 3;
+    private static final int QUOTE_IN_QUOTED_FIELD = 4;
+    private static final int STATE_COUNT = 5;
+
+    // Classes d'octets
+    private static final int QUOTE = 0;
+    private static final int NEWLINE = 1;
+    private static final int COMMA = 2;
+    private static final int BLANK = 3;
+    private static final int OTHER = 4;
+
+    // État suivant, par état et par classe d'octet
+    private static final int[][] TRANSITIONS = {
+            // LINE_START : blancs ignorés, un guillemet ouvre le premier champ
+            {QUOTED_FIELD, LINE_START, FIELD_START, LINE_START, UNQUOTED_FIELD},
+            // FIELD_START : après une virgule, un guillemet ouvre le champ
+            {QUOTED_FIELD, LINE_START, FIELD_START, UNQUOTED_FIELD, UNQUOTED_FIELD},
+            // UNQUOTED_FIELD : les guillemets sont des caractères ordinaires
+            {UNQUOTED_FIELD, LINE_START, FIELD_START, UNQUOTED_FIELD, UNQUOTED_FIELD},
+            // QUOTED_FIELD : seul un guillemet compte, virgules et fins de ligne font partie du champ
+            {QUOTE_IN_QUOTED_FIELD, QUOTED_FIELD, QUOTED_FIELD, QUOTED_FIELD, QUOTED_FIELD},
+            // QUOTE_IN_QUOTED_FIELD : un second guillemet est échappé, sinon le champ est fermé
+            // et la suite est ignorée jusqu'au séparateur
+            {QUOTED_FIELD, LINE_START, FIELD_START, UNQUOTED_FIELD, UNQUOTED_FIELD},
+    };
+
+    /**
+     * Résultat du parcours d'une tranche depuis chaque état de départ possible : l'état à la fin
+     * de la tranche et la position de sa première fin de ligne hors guillemets (-1 s'il n'y en a pas),
+     * relative à la tranche.
+     */
+    private record ChunkScan(int[] endStates, long[] firstNewlines) {
+    }
+
+    private final int windowSize;
+
+    // Ligne en cours d'analyse : bornes des champs dans la fenêtre courante
+    private final int[] fieldStart = new int[MAX_FIELDS];
+    private final int[] fieldEnd = new int[MAX_FIELDS];
+    private final boolean[] fieldQuoted = new boolean[MAX_FIELDS];
+    private final boolean[] fieldEscaped = new boolean[MAX_FIELDS];
+    private int fieldCount;
+    private int lineStart;
+    private int lineEnd;
+
+    private byte[] scratch = new byte[128];
+
+    /**
+     * Construit un lecteur utilisant la fenêtre de projection par défaut.
+     */
+    MappedCsvReader() {
+        this(DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Construit un lecteur avec une taille de fenêtre de projection donnée.
+     *
+     * @param windowSize la taille maximale projetée en une fois, en octets
+     */
+    MappedCsvReader(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("La taille de fenêtre doit être positive");
+        }
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Lit tous les articles d'un fichier CSV.
+     *
+     * @param file le fichier à lire
+     * @return les articles, dans l'ordre du fichier
+     * @throws IOException en cas d'erreur de lecture
+     */
+    List<GroceryItem> read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            DataStart dataStart = detectFormat(channel, fileSize);
+            List<GroceryItem> items = new ArrayList<>();
+            if (dataStart != null) {
+                readRange(channel, dataStart.offset(), fileSize, dataStart.legacyFormat(), items);
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Lit tous les articles d'un fichier CSV en analysant des tranches du fichier en parallèle.
+     * <p>
+     * Le fichier est découpé en tranches de taille égale, puis chaque coupure est avancée jusqu'à
+     * la première fin de ligne située hors d'un champ entre guillemets. Comme pour l'analyse des
+     * lignes, seul un guillemet en début de champ ouvre un tel champ : un guillemet au milieu d'un
+     * champ est un caractère ordinaire. L'état au début d'une tranche dépend donc de tout ce qui
+     * précède : une première passe parallèle parcourt chaque tranche depuis chacun des états
+     * possibles, puis ces résultats sont enchaînés dans l'ordre pour connaître l'état réel au
+     * début de chaque tranche.
+     * Les tranches sont ensuite analysées en parallèle et concaténées dans l'ordre du fichier,
+     * si bien qu'un article présent plusieurs fois reste dans le même ordre qu'en lecture séquentielle.
+     *
+     * @param file le fichier à lire
+     * @param pool le pool d'exécution des analyses
+     * @return les articles, dans l'ordre du fichier
+     * @throws IOException en cas d'erreur de lecture
+     */
+    List<GroceryItem> readParallel(Path file, ForkJoinPool pool) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            DataStart dataStart = detectFormat(channel, fileSize);
+            if (dataStart == null) {
+                return new ArrayList<>();
+            }
+
+            long[] boundaries = findChunkBoundaries(channel, dataStart.offset(), fileSize, pool);
+
+            List<Callable<List<GroceryItem>>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                long from = boundaries[i];
+                long to = boundaries[i + 1];
+                tasks.add(() -> {
+                    List<GroceryItem> chunkItems = new ArrayList<>();
+                    new MappedCsvReader(windowSize).readRange(channel, from, to, dataStart.legacyFormat(), chunkItems);
+                    return chunkItems;
+                });
+            }
+
+            List<List<GroceryItem>> chunks = invokeAll(pool, tasks);
+            int total = 0;
+            for (List<GroceryItem> chunk : chunks) {
+                total += chunk.size();
+            }
+            List<GroceryItem> items = new ArrayList<>(total);
+            for (List<GroceryItem> chunk : chunks) {
+                items.addAll(chunk);
+            }
+            return items;
+        }
+    }
+
+    /**
+     * Détermine le format à partir de la première ligne non vide.
+     *
+     * @return le début des articles et le format, ou null si le fichier ne contient aucune ligne
+     */
+    private DataStart detectFormat(FileChannel channel, long fileSize) throws IOException {
+        int currentWindowSize = windowSize;
+        while (true) {
+            int length = (int) Math.min(currentWindowSize, fileSize);
+            boolean lastWindow = length == fileSize;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+            int position = 0;
+            while (position < length) {
+                int next = parseLine(buffer, position, length, lastWindow);
+                if (next == INCOMPLETE) {
+                    break;
+                }
+                if (fieldCount > 0) {
+                    // En-tête du format actuel, ou premier article de l'ancien format
+                    return isHeader(buffer) ? new DataStart(next, false) : new DataStart(position, true);
+                }
+                position = next;
+            }
+
+            if (lastWindow) {
+                return null;
+            }
+            currentWindowSize = (int) Math.min((long) currentWindowSize * 2, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Lit les articles situés entre deux positions du fichier, la première étant un début de ligne.
+     */
+    private void readRange(FileChannel channel, long from, long to, boolean legacyFormat,
+                           List<GroceryItem> items) throws IOException {
+        long windowStart = from;
+        int currentWindowSize = windowSize;
+
+        while (windowStart < to) {
+            int length = (int) Math.min(currentWindowSize, to - windowStart);
+            boolean lastWindow = windowStart + length == to;
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, length);
+
+            int position = 0;
+            while (position < length) {
+                int next = parseLine(buffer, position, length, lastWindow);
+                if (next == INCOMPLETE) {
+                    break;
+                }
+                position = next;
+
+                if (fieldCount > 0) {
+                    GroceryItem item = legacyFormat ? toLegacyItem(buffer) : toItem(buffer);
+                    if (item != null) {
+                        items.add(item);
+                    }
+                }
+            }
+
+            if (position == 0) {
+                // Une seule ligne dépasse la fenêtre : l'agrandir
+                currentWindowSize = (int) Math.min((long) currentWindowSize * 2, Integer.MAX_VALUE);
+            } else {
+                currentWindowSize = windowSize;
+            }
+            windowStart += position;
+        }
+    }
+
+    /**
+     * Découpe la zone des articles en tranches commençant chacune en début de ligne.
+     *
+     * @return les bornes des tranches, de {@code from} à {@code to} inclus
+     */
+    private long[] findChunkBoundaries(FileChannel channel, long from, long to, ForkJoinPool pool) throws IOException {
+        long length = to - from;
+        long chunkCount = Math.min((long) pool.getParallelism() * CHUNKS_PER_THREAD, length / MIN_CHUNK_SIZE);
+        // Chaque tranche doit pouvoir être projetée d'un bloc
+        chunkCount = Math.max(chunkCount, (length + windowSize - 1) / windowSize);
+        if (chunkCount <= 1) {
+            return new long[] {from, to};
+        }
+
+        long[] chunkStarts = new long[(int) chunkCount + 1];
+        for (int i = 0; i <= chunkCount; i++) {
+            chunkStarts[i] = from + length * i / chunkCount;
+        }
+
+        // Première passe : état final et première fin de ligne de chaque tranche, pour chaque état de départ
+        List<Callable<ChunkScan>> scanTasks = new ArrayList<>();
+        for (int i = 0; i < chunkCount; i++) {
+            long chunkFrom = chunkStarts[i];
+            long chunkTo = chunkStarts[i + 1];
+            scanTasks.add(() -> scanChunk(channel, chunkFrom, chunkTo));
+        }
+        List<ChunkScan> scans = invokeAll(pool, scanTasks);
+
+        // Enchaîner les états dans l'ordre : avancer chaque coupure jusqu'à une fin de ligne hors guillemets
+        long[] boundaries = new long[(int) chunkCount + 1];
+        int boundaryCount = 0;
+        boundaries[boundaryCount++] = from;
+        int state = LINE_START;
+        for (int i = 0; i < chunkCount; i++) {
+            ChunkScan scan = scans.get(i);
+            if (i > 0) {
+                long newline = scan.firstNewlines()[state];
+                // Sans fin de ligne utilisable, la tranche est rattachée à la précédente
+                if (newline >= 0) {
+                    boundaries[boundaryCount++] = chunkStarts[i] + newline + 1;
+                }
+            }
+            state = scan.endStates()[state];
+        }
+        boundaries[boundaryCount++] = to;
+
+        return Arrays.copyOf(boundaries, boundaryCount);
+    }
+
+    /**
+     * Parcourt une tranche depuis chaque état de départ possible.
+     */
+    private static ChunkScan scanChunk(FileChannel channel, long from, long to) throws IOException {
+        int length = (int) (to - from);
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+
+        int[] states = new int[STATE_COUNT];
+        long[] firstNewlines = new long[STATE_COUNT];
+        for (int start = 0; start < STATE_COUNT; start++) {
+            states[start] = start;
+            firstNewlines[start] = -1;
+        }
+        for (int i = 0; i < length; i++) {
+            int byteClass = byteClass(buffer.get(i));
+            for (int start = 0; start < STATE_COUNT; start++) {
+                int state = states[start];
+                if (byteClass == NEWLINE && state != QUOTED_FIELD && firstNewlines[start] < 0) {
+                    firstNewlines[start] = i;
+                }
+                states[start] = TRANSITIONS[state][byteClass];
+            }
+        }
+        return new ChunkScan(states, firstNewlines);
+    }
+
+    /**
+     * Classe un octet comme parseLine : les blancs sont les octets inférieurs ou égaux à l'espace.
+     */
+    private static int byteClass(byte b) {
+        return switch (b) {
+            case '"' -> QUOTE;
+            case '\n' -> NEWLINE;
+            case ',' -> COMMA;
+            default -> b <= ' ' ? BLANK : OTHER;
+        };
+    }
+
+    /**
+     * Exécute des tâches sur le pool et retourne leurs résultats dans l'ordre des tâches.
+     */
+    private static <T> List<T> invokeAll(ForkJoinPool pool, List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Lecture interrompue");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Erreur lors de la lecture parallèle", e.getCause());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Analyse la ligne commençant à la position donnée et enregistre les bornes de ses champs.
+     *
+     * @return la position de la ligne suivante, ou {@link #INCOMPLETE} si la ligne dépasse la fenêtre
+     */
+    private int parseLine(ByteBuffer buffer, int position, int limit, boolean lastWindow) {
+        int p = position;
+        fieldCount = 0;
+
+        // Ignorer les blancs en début de ligne, y compris les lignes vides
+        while (p < limit && buffer.get(p) <= ' ') {
+            p++;
+        }
+        if (p == limit) {
+            return limit;
+        }
+        lineStart = p;
+
+        while (true) {
+            int start;
+            int end;
+            boolean quoted = p < limit && buffer.get(p) == '"';
+            boolean escaped = false;
+
+            if (quoted) {
+                p++;
+                start = p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!lastWindow) {
+                            return INCOMPLETE;
+                        }
+                        // Guillemet non fermé en fin de fichier : garder le reste
+                        end = p;
+                        break;
+                    }
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 >= limit && !lastWindow) {
+                            return INCOMPLETE;
+                        }
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            escaped = true;
+                            p += 2;
+                            continue;
+                        }
+                        end = p;
+                        p++;
+                        break;
+                    }
+                    p++;
+                }
+                // Ignorer ce qui suit le guillemet fermant jusqu'au séparateur
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n') {
+                    p++;
+                }
+                if (p >= limit && !lastWindow) {
+                    return INCOMPLETE;
+                }
+            } else {
+                start = p;
+                while (p < limit && buffer.get(p) != ',' && buffer.get(p) != '\n') {
+                    p++;
+                }
+                if (p >= limit && !lastWindow) {
+                    return INCOMPLETE;
+                }
+                end = p;
+            }
+
+            boolean endOfLine = p >= limit || buffer.get(p) == '\n';
+            if (endOfLine) {
+                lineEnd = p;
+                while (lineEnd > lineStart && buffer.get(lineEnd - 1) <= ' ') {
+                    lineEnd--;
+                }
+                if (!quoted) {
+                    end = Math.min(end, lineEnd);
+                }
+            }
+
+            if (fieldCount < MAX_FIELDS) {
+                fieldStart[fieldCount] = start;
+                fieldEnd[fieldCount] = Math.max(start, end);
+                fieldQuoted[fieldCount] = quoted;
+                fieldEscaped[fieldCount] = escaped;
+            }
+            fieldCount++;
+
+            if (endOfLine) {
+                return p < limit ? p + 1 : p;
+            }
+            // Passer la virgule
+            p++;
+        }
+    }
+
+    /**
+     * Vérifie si la ligne courante est l'en-tête du format actuel, sans tenir compte de la casse.
+     */
+    private boolean isHeader(ByteBuffer buffer) {
+        if (lineEnd - lineStart != HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; i++) {
+            int b = buffer.get(lineStart + i);
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Construit l'article de la ligne courante au format {@code nom,quantité,catégorie}.
+     *
+     * @return l'article, ou null si la ligne est incomplète ou la quantité invalide
+     */
+    private GroceryItem toItem(ByteBuffer buffer) {
+        if (fieldCount < MAX_FIELDS || fieldQuoted[QUANTITY_INDEX]) {
+            return null;
+        }
+        long quantity = parseQuantity(buffer, fieldStart[QUANTITY_INDEX], fieldEnd[QUANTITY_INDEX]);
+        if (quantity == INVALID_QUANTITY) {
+            return null;
+        }
+
+        String category = !fieldQuoted[CATEGORY_INDEX] && fieldStart[CATEGORY_INDEX] == fieldEnd[CATEGORY_INDEX]
+                ? DEFAULT_CATEGORY
+                : decode(buffer, CATEGORY_INDEX);
+        return new GroceryItem(decode(buffer, NAME_INDEX), (int) quantity, category);
+    }
+
+    /**
+     * Construit l'article de la ligne courante à l'ancien format {@code nom,quantité}.
+     * Comme auparavant, tout ce qui suit la première virgule doit être la quantité.
+     *
+     * @return l'article, ou null si la ligne est incomplète ou la quantité invalide
+     */
+    private GroceryItem toLegacyItem(ByteBuffer buffer) {
+        if (fieldCount < 2) {
+            return null;
+        }
+        long quantity = parseQuantity(buffer, fieldStart[QUANTITY_INDEX], lineEnd);
+        if (quantity == INVALID_QUANTITY) {
+            return null;
+        }
+        return new GroceryItem(decode(buffer, NAME_INDEX), (int) quantity);
+    }
+
+    /**
+     * Lit un entier signé directement depuis les octets, avec les mêmes règles que {@link Integer#parseInt}.
+     *
+     * @return la quantité, ou {@link #INVALID_QUANTITY} si elle n'est pas un entier valide
+     */
+    private static long parseQuantity(ByteBuffer buffer, int start, int end) {
+        if (start >= end) {
+            return INVALID_QUANTITY;
+        }
+
+        int p = start;
+        boolean negative = false;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+            if (p == end) {
+                return INVALID_QUANTITY;
+            }
+        }
+
+        long value = 0;
+        for (; p < end; p++) {
+            int digit = buffer.get(p) - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_QUANTITY;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return INVALID_QUANTITY;
+            }
+        }
+
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? INVALID_QUANTITY : value;
+    }
+
+    /**
+     * Convertit un champ de la ligne courante en chaîne, en remplaçant les guillemets doublés.
+     */
+    private String decode(ByteBuffer buffer, int field) {
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+
+        if (fieldEscaped[field]) {
+            int written = 0;
+            for (int i = 0; i < length; i++) {
+                scratch[written++] = scratch[i];
+                if (scratch[i] == '"' && i + 1 < length && scratch[i + 1] == '"') {
+                    i++;
+                }
+            }
+            length = written;
+        }
+
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -2,6 +2,8 @@ package com.fges.storage;
 
 import com.fges.model.GroceryItem;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -12,11 +14,11 @@ public interface StorageManager {
     /**
      * Sauvegarde la liste d'articles dans un fichier.
      *
-     * @param items    la liste des articles à sauvegarder
+     * @param items    les articles à sauvegarder, parcourus dans leur ordre
      * @param fileName le nom du fichier où sauvegarder
      * @throws IOException en cas d'erreur d'écriture
      */
-    void saveGroceryList(List<GroceryItem> items, String fileName) throws IOException;
+    void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException;
 
     /**
      * Charge la liste d'articles depuis un fichier.
@@ -26,4 +28,16 @@ public interface StorageManager {
      * @throws IOException en cas d'erreur de lecture
      */
     List<GroceryItem> loadGroceryList(String fileName) throws IOException;
+
+    /**
+     * Relève l'empreinte des fichiers qui contiennent la liste, pour détecter une écriture
+     * faite entre-temps par un autre processus. Par défaut, seul le fichier indiqué.
+     *
+     * @param fileName le nom du fichier de la liste
+     * @return les empreintes des fichiers de la liste
+     * @throws IOException en cas d'erreur de lecture des attributs
+     */
+    default List<FileStamp> getFileStamps(String fileName) throws IOException {
+        return List.of(FileStamp.of(Path.of(fileName)));
+    }
 } 
\ No newline at end of file
@@ -7,19 +7,35 @@ import com.fges.util.MessageFormatter;
  */
 public class StorageManagerFactory {
     /**
-     * Crée un gestionnaire de stockage pour le format spécifié.
+     * Crée un gestionnaire de stockage pour le format spécifié, avec la durabilité par défaut.
      *
-     * @param format le format de stockage (json ou csv)
+     * @param format le format de stockage (json, csv, journal ou bin)
      * @return le gestionnaire de stockage approprié
      * @throws IllegalArgumentException si le format n'est pas supporté
      */
     public static StorageManager createStorageManager(String format) {
+        return createStorageManager(format, DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Crée un gestionnaire de stockage pour le format spécifié.
+     *
+     * @param format     le format de stockage (json, csv, journal ou bin)
+     * @param durability le niveau de durabilité des sauvegardes
+     * @return le gestionnaire de stockage approprié
+     * @throws IllegalArgumentException si le format n'est pas supporté
+     */
+    public static StorageManager createStorageManager(String format, DurabilityLevel durability) {
         if ("json".equalsIgnoreCase(format)) {
-            return new JsonStorageManager();
+            return new StreamingJsonStorageManager(durability);
         } else if ("csv".equalsIgnoreCase(format)) {
-            return new CsvStorageManager();
+            return new CsvStorageManager(durability);
+        } else if ("journal".equalsIgnoreCase(format)) {
+            return new JournalStorageManager(durability);
+        } else if ("bin".equalsIgnoreCase(format)) {
+            return new BinaryStorageManager(durability);
         } else {
             throw new IllegalArgumentException(MessageFormatter.formatInvalidStorageFormat());
         }
     }
-} 
\ No newline at end of file
+}
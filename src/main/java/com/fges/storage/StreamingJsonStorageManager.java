@@ -0,0 +1,208 @@
+package com.fges.storage;
+
+import com.fges.model.GroceryItem;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Gestionnaire de stockage JSON basé sur l'API de flux (tokens) de Jackson.
+ * Le fichier est lu en une seule passe, sans construire d'arbre intermédiaire :
+ * le premier token détermine le format (tableau d'articles ou ancien format
+ * objet nom → quantité). Les fichiers produits sont compatibles avec {@link JsonStorageManager}.
+ * Les sauvegardes sont atomiques ({@link AtomicFileWriter}).
+ */
+public class StreamingJsonStorageManager implements StorageManager {
+    private static final String NAME_FIELD = "name";
+    private static final String QUANTITY_FIELD = "quantity";
+    private static final String CATEGORY_FIELD = "category";
+    private static final String DEFAULT_CATEGORY = "default";
+
+    private final JsonFactory jsonFactory;
+    private final boolean prettyPrint;
+    private final DurabilityLevel durability;
+
+    /**
+     * Construit un gestionnaire de stockage JSON produisant une sortie compacte.
+     */
+    public StreamingJsonStorageManager() {
+        this(false);
+    }
+
+    /**
+     * Construit un gestionnaire de stockage JSON.
+     *
+     * @param prettyPrint true pour indenter le fichier produit
+     */
+    public StreamingJsonStorageManager(boolean prettyPrint) {
+        this(prettyPrint, DurabilityLevel.DEFAULT);
+    }
+
+    /**
+     * Construit un gestionnaire de stockage JSON produisant une sortie compacte.
+     *
+     * @param durability le niveau de durabilité des sauvegardes
+     */
+    public StreamingJsonStorageManager(DurabilityLevel durability) {
+        this(false, durability);
+    }
+
+    /**
+     * Construit un gestionnaire de stockage JSON.
+     *
+     * @param prettyPrint true pour indenter le fichier produit
+     * @param durability  le niveau de durabilité des sauvegardes
+     */
+    public StreamingJsonStorageManager(boolean prettyPrint, DurabilityLevel durability) {
+        this.jsonFactory = new JsonFactory();
+        this.prettyPrint = prettyPrint;
+        this.durability = durability;
+    }
+
+    @Override
+    public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+        AtomicFileWriter.write(Path.of(fileName), durability, output -> {
+            try (JsonGenerator generator = jsonFactory.createGenerator(output, JsonEncoding.UTF8)) {
+                if (prettyPrint) {
+                    generator.useDefaultPrettyPrinter();
+                }
+
+                // Même règle de rétrocompatibilité que JsonStorageManager :
+                // sans catégorie, on conserve l'ancien format nom → quantité
+                if (containsCategories(items)) {
+                    writeItems(generator, items);
+                } else {
+                    writeLegacyItems(generator, items);
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+        List<GroceryItem> items = new ArrayList<>();
+
+        try (JsonParser parser = jsonFactory.createParser(
+                new BufferedInputStream(new FileInputStream(fileName)))) {
+            JsonToken firstToken = parser.nextToken();
+
+            // Fichier vide : liste vide
+            if (firstToken == null) {
+                return items;
+            }
+
+            if (firstToken == JsonToken.START_ARRAY) {
+                readItems(parser, items);
+            } else if (firstToken == JsonToken.START_OBJECT) {
+                readLegacyItems(parser, items);
+            } else {
+                throw new JsonParseException(parser, "Format de liste de courses inattendu : " + firstToken);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Écrit les articles au format tableau d'objets.
+     */
+    private void writeItems(JsonGenerator generator, Collection<GroceryItem> items) throws IOException {
+        generator.writeStartArray();
+        for (GroceryItem item : items) {
+            generator.writeStartObject();
+            generator.writeStringField(NAME_FIELD, item.getName());
+            generator.writeNumberField(QUANTITY_FIELD, item.getQuantity());
+            generator.writeStringField(CATEGORY_FIELD, item.getCategory());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Écrit les articles à l'ancien format objet nom → quantité.
+     */
+    private void writeLegacyItems(JsonGenerator generator, Collection<GroceryItem> items) throws IOException {
+        generator.writeStartObject();
+        for (GroceryItem item : items) {
+            generator.writeNumberField(item.getName(), item.getQuantity());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Lit un tableau d'articles, le premier token ayant déjà été consommé.
+     */
+    private void readItems(JsonParser parser, List<GroceryItem> items) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = null;
+            int quantity = 0;
+            String category = DEFAULT_CATEGORY;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (NAME_FIELD.equals(field)) {
+                    name = parser.getValueAsString();
+                } else if (QUANTITY_FIELD.equals(field)) {
+                    quantity = parser.getValueAsInt();
+                } else if (CATEGORY_FIELD.equals(field) && value != JsonToken.VALUE_NULL) {
+                    category = parser.getValueAsString();
+                } else {
+                    // Ignorer les champs inconnus, y compris les structures imbriquées
+                    parser.skipChildren();
+                }
+            }
+
+            if (name != null) {
+                items.add(new GroceryItem(name, quantity, category));
+            }
+        }
+
+        if (parser.currentToken() != JsonToken.END_ARRAY) {
+            throw new JsonParseException(parser, "Article attendu dans la liste de courses");
+        }
+    }
+
+    /**
+     * Lit l'ancien format objet nom → quantité, le premier token ayant déjà été consommé.
+     */
+    private void readLegacyItems(JsonParser parser, List<GroceryItem> items) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value.isStructStart()) {
+                // Ignorer les valeurs imbriquées, qui ne sont pas des quantités
+                parser.skipChildren();
+            } else {
+                items.add(new GroceryItem(name, parser.getValueAsInt()));
+            }
+        }
+    }
+
+    /**
+     * Vérifie si la liste contient des articles avec des catégories autres que la catégorie par défaut.
+     *
+     * @param items la liste d'articles à vérifier
+     * @return true si au moins un article a une catégorie différente de "default"
+     */
+    private boolean containsCategories(Collection<GroceryItem> items) {
+        for (GroceryItem item : items) {
+            if (!DEFAULT_CATEGORY.equals(item.getCategory())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,263 @@
+package com.fges.storage;
+
+import com.fges.metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sauvegarde différée regroupant plusieurs modifications en une seule écriture.
+ * <p>
+ * Chaque modification marque la liste comme modifiée ; la sauvegarde a lieu au plus tard
+ * après un délai maximal, ou immédiatement lorsque le nombre de modifications en attente
+ * atteint un seuil. Les sauvegardes s'exécutent sur un thread dédié, l'une après l'autre.
+ */
+public class WriteBehindFlusher implements AutoCloseable {
+    /**
+     * Action de sauvegarde exécutée par le flusher.
+     */
+    @FunctionalInterface
+    public interface FlushAction {
+        /**
+         * Sauvegarde l'état courant.
+         *
+         * @throws IOException en cas d'erreur d'écriture
+         */
+        void flush() throws IOException;
+    }
+
+    private final FlushAction action;
+    private final long maxDelayMillis;
+    private final int maxPendingOperations;
+    private final ScheduledExecutorService scheduler;
+    private final Object lock = new Object();
+
+    // État protégé par lock
+    private int pendingOperations;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    // Statistiques
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedOperations = new LongAdder();
+
+    /**
+     * Construit un flusher.
+     *
+     * @param action               l'action de sauvegarde
+     * @param maxDelayMillis       délai maximal entre une modification et sa sauvegarde, en millisecondes
+     * @param maxPendingOperations nombre de modifications en attente déclenchant une sauvegarde immédiate
+     */
+    public WriteBehindFlusher(FlushAction action, long maxDelayMillis, int maxPendingOperations) {
+        this(action, maxDelayMillis, maxPendingOperations, runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Construit un flusher dont les sauvegardes s'exécutent sur un thread de la fabrique fournie.
+     *
+     * @param action               l'action de sauvegarde
+     * @param maxDelayMillis       délai maximal entre une modification et sa sauvegarde, en millisecondes
+     * @param maxPendingOperations nombre de modifications en attente déclenchant une sauvegarde immédiate
+     * @param threadFactory        la fabrique du thread de sauvegarde
+     */
+    public WriteBehindFlusher(FlushAction action, long maxDelayMillis, int maxPendingOperations,
+                              ThreadFactory threadFactory) {
+        if (maxDelayMillis < 0) {
+            throw new IllegalArgumentException("Le délai de sauvegarde ne peut pas être négatif");
+        }
+        if (maxPendingOperations <= 0) {
+            throw new IllegalArgumentException("Le nombre de modifications en attente doit être positif");
+        }
+
+        this.action = action;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPendingOperations = maxPendingOperations;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Signale une modification à sauvegarder.
+     */
+    public void markDirty() {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Le flusher est fermé");
+            }
+
+            pendingOperations++;
+
+            if (pendingOperations >= maxPendingOperations) {
+                // Seuil atteint : sauvegarder sans attendre le délai
+                if (scheduledFlush != null) {
+                    scheduledFlush.cancel(false);
+                }
+                scheduledFlush = scheduler.schedule(this::flushPending, 0, TimeUnit.MILLISECONDS);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flushPending, maxDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Sauvegarde immédiatement les modifications en attente, dans le thread appelant.
+     *
+     * @throws IOException en cas d'erreur d'écriture
+     */
+    public void flush() throws IOException {
+        int operations;
+        synchronized (lock) {
+            operations = takePendingOperations();
+        }
+        if (operations == 0) {
+            return;
+        }
+
+        try {
+            runAction(operations);
+        } catch (IOException e) {
+            synchronized (lock) {
+                pendingOperations += operations;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Arrête le flusher après avoir sauvegardé les modifications en attente.
+     *
+     * @throws IOException en cas d'erreur lors de la dernière sauvegarde
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+
+        // Laisser une sauvegarde en cours se terminer avant la dernière
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(maxDelayMillis + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    /**
+     * Indique si le flusher est fermé ; il refuse alors toute nouvelle modification.
+     *
+     * @return true après {@link #close()}
+     */
+    public boolean isClosed() {
+        synchronized (lock) {
+            return closed;
+        }
+    }
+
+    /**
+     * Retourne le nombre de modifications en attente de sauvegarde.
+     *
+     * @return le nombre de modifications en attente
+     */
+    public int getPendingOperations() {
+        synchronized (lock) {
+            return pendingOperations;
+        }
+    }
+
+    /**
+     * Retourne le nombre de sauvegardes effectuées.
+     *
+     * @return le nombre de sauvegardes
+     */
+    public long getFlushCount() {
+        return flushCount.sum();
+    }
+
+    /**
+     * Retourne le nombre d'écritures évitées grâce au regroupement,
+     * c'est-à-dire les modifications sauvegardées sans sauvegarde dédiée.
+     *
+     * @return le nombre d'écritures regroupées
+     */
+    public long getCoalescedWriteCount() {
+        return flushedOperations.sum() - flushCount.sum();
+    }
+
+    /**
+     * Expose les compteurs de ce flusher dans un registre de métriques ; ils remplacent
+     * ceux d'un flusher précédemment enregistré sous le même nom.
+     *
+     * @param registry le registre de métriques
+     * @param owner le nom du composant propriétaire (par exemple "web" ou "daemon")
+     */
+    public void registerMetrics(MetricsRegistry registry, String owner) {
+        registry.counterFunction("grocery_flush_total",
+                "Sauvegardes différées effectuées", "owner", owner, this::getFlushCount);
+        registry.counterFunction("grocery_flush_coalesced_writes_total",
+                "Écritures évitées grâce au regroupement des sauvegardes", "owner", owner, this::getCoalescedWriteCount);
+        registry.gauge("grocery_flush_pending_operations",
+                "Modifications en attente de sauvegarde", "owner", owner, this::getPendingOperations);
+    }
+
+    /**
+     * Tâche planifiée : sauvegarde les modifications en attente.
+     * En cas d'échec, elles restent en attente pour la prochaine sauvegarde.
+     */
+    private void flushPending() {
+        int operations;
+        synchronized (lock) {
+            operations = takePendingOperations();
+        }
+        if (operations == 0) {
+            return;
+        }
+
+        try {
+            runAction(operations);
+        } catch (IOException e) {
+            System.err.println("Erreur lors de la sauvegarde différée : " + e.getMessage());
+            synchronized (lock) {
+                pendingOperations += operations;
+                if (!closed && scheduledFlush == null) {
+                    scheduledFlush = scheduler.schedule(this::flushPending, maxDelayMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Retire les modifications en attente ; doit être appelée sous lock.
+     */
+    private int takePendingOperations() {
+        int operations = pendingOperations;
+        pendingOperations = 0;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return operations;
+    }
+
+    /**
+     * Exécute l'action de sauvegarde et met à jour les statistiques.
+     */
+    private void runAction(int operations) throws IOException {
+        action.flush();
+        flushCount.increment();
+        flushedOperations.add(operations);
+    }
+}
@@ -70,7 +70,7 @@ public class InputValidator {
     
     /**
      * Vérifie si un format de stockage est valide.
-     * Un format est considéré valide s'il est égal à "json" ou "csv" (insensible à la casse).
+     * Un format est considéré valide s'il est égal à "json", "csv", "journal" ou "bin" (insensible à la casse).
      *
      * @param format le format à vérifier
      * @return true si le format est valide, false sinon
@@ -80,7 +80,9 @@ public class InputValidator {
             return false;
         }
         
-        return "json".equalsIgnoreCase(format) || "csv".equalsIgnoreCase(format);
+        return "json".equalsIgnoreCase(format) || "csv".equalsIgnoreCase(format)
+                || "journal".equalsIgnoreCase(format)
+                || "bin".equalsIgnoreCase(format);
     }
     
     /**
@@ -90,7 +90,7 @@ public class MessageFormatter {
      * @return le message formaté
      */
     public static String formatInvalidStorageFormat() {
-        return "Format de stockage non supporté. Utilisez 'json' ou 'csv'.";
+        return "Format de stockage non supporté. Utilisez 'json', 'csv', 'journal' ou 'bin'.";
     }
 
     /**
@@ -132,4 +132,27 @@ public class MessageFormatter {
     public static String formatCategoryHeader(String category) {
         return String.format("# %s:", category);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Formate les statistiques d'une catégorie.
+     *
+     * @param category la catégorie
+     * @param itemCount le nombre d'articles
+     * @param totalQuantity la quantité totale
+     * @return le message formaté
+     */
+    public static String formatCategoryStats(String category, int itemCount, long totalQuantity) {
+        return String.format("# %s: %d article(s), quantité totale %d", category, itemCount, totalQuantity);
+    }
+
+    /**
+     * Formate les statistiques de toute la liste.
+     *
+     * @param itemCount le nombre d'articles
+     * @param totalQuantity la quantité totale
+     * @return le message formaté
+     */
+    public static String formatStatsTotal(long itemCount, long totalQuantity) {
+        return String.format("Total : %d article(s), quantité totale %d", itemCount, totalQuantity);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fges.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Type de threads utilisé par les serveurs (web, démon) pour leurs tâches de fond :
+ * journalisation, sauvegardes différées et clients du démon.
+ */
+public enum ThreadModel {
+    /**
+     * Threads virtuels : une tâche bloquée sur une entrée/sortie ne mobilise pas de thread système.
+     */
+    VIRTUAL,
+
+    /**
+     * Threads système classiques, en arrière-plan ; utile pour comparer les deux modèles.
+     */
+    PLATFORM;
+
+    /**
+     * Modèle utilisé lorsqu'aucun n'est précisé.
+     */
+    public static final ThreadModel DEFAULT = VIRTUAL;
+
+    /**
+     * Crée une fabrique de threads de ce type, nommés {@code <prefix>-<n>}.
+     *
+     * @param prefix le préfixe des noms de threads
+     * @return la fabrique de threads
+     */
+    public ThreadFactory threadFactory(String prefix) {
+        if (this == VIRTUAL) {
+            return Thread.ofVirtual().name(prefix + "-", 0).factory();
+        }
+        return Thread.ofPlatform().name(prefix + "-", 0).daemon(true).factory();
+    }
+
+    /**
+     * Crée un exécuteur lançant chaque tâche sur son propre thread de ce type ; les threads
+     * système sont réutilisés d'une tâche à l'autre, les threads virtuels ne le sont pas.
+     *
+     * @param prefix le préfixe des noms de threads
+     * @return l'exécuteur
+     */
+    public ExecutorService newTaskExecutor(String prefix) {
+        if (this == VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(threadFactory(prefix));
+        }
+        return Executors.newCachedThreadPool(threadFactory(prefix));
+    }
+}
@@ -0,0 +1,209 @@
+package com.fges.web;
+
+import fr.anthonyquere.MyGroceryShop.WebGroceryItem;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Version immuable de la liste d'articles du magasin web, triée par nom.
+ * <p>
+ * Les articles sont rangés dans un arbre AVL persistant : une modification ne touche jamais
+ * l'arbre existant, elle recopie seulement les nœuds du chemin modifié (O(log n)) et partage
+ * tous les autres avec la version précédente. Une version peut donc être lue sans verrou ni
+ * copie par n'importe quel thread, pendant que les suivantes sont construites.
+ * <p>
+ * La version est elle-même une {@link java.util.List} non modifiable : elle est renvoyée telle quelle
+ * aux lecteurs. Chaque nœud connaît la taille de son sous-arbre, pour l'accès par position.
+ */
+final class GrocerySnapshot extends AbstractList<WebGroceryItem> {
+    /**
+     * Version initiale, sans article.
+     */
+    static final GrocerySnapshot EMPTY = new GrocerySnapshot(null);
+
+    private final Node root;
+
+    private GrocerySnapshot(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Construit la version suivante, où l'article remplace celui de même nom ou est ajouté.
+     *
+     * @param item l'article à enregistrer
+     * @return la nouvelle version
+     */
+    GrocerySnapshot with(WebGroceryItem item) {
+        return new GrocerySnapshot(insert(root, item));
+    }
+
+    /**
+     * Construit la version suivante, sans l'article indiqué.
+     *
+     * @param name le nom de l'article à retirer
+     * @return la nouvelle version, ou cette version si l'article n'existe pas
+     */
+    GrocerySnapshot without(String name) {
+        Node newRoot = delete(root, name);
+        return newRoot == root ? this : new GrocerySnapshot(newRoot);
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public WebGroceryItem get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.item;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Parcours infixe de l'arbre, sans passer par l'accès par position.
+     */
+    @Override
+    public Iterator<WebGroceryItem> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node> path = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public WebGroceryItem next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = path.pop();
+                pushLeft(node.right);
+                return node.item;
+            }
+
+            private void pushLeft(Node node) {
+                while (node != null) {
+                    path.push(node);
+                    node = node.left;
+                }
+            }
+        };
+    }
+
+    private static Node insert(Node node, WebGroceryItem item) {
+        if (node == null) {
+            return new Node(item, null, null);
+        }
+        int comparison = item.name().compareTo(node.item.name());
+        if (comparison == 0) {
+            return new Node(item, node.left, node.right);
+        }
+        return comparison < 0
+                ? balance(node.item, insert(node.left, item), node.right)
+                : balance(node.item, node.left, insert(node.right, item));
+    }
+
+    private static Node delete(Node node, String name) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = name.compareTo(node.item.name());
+        if (comparison < 0) {
+            Node left = delete(node.left, name);
+            return left == node.left ? node : balance(node.item, left, node.right);
+        }
+        if (comparison > 0) {
+            Node right = delete(node.right, name);
+            return right == node.right ? node : balance(node.item, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        // Remplacer par le plus petit article du sous-arbre droit
+        Node successor = node.right;
+        while (successor.left != null) {
+            successor = successor.left;
+        }
+        return balance(successor.item, node.left, deleteMin(node.right));
+    }
+
+    private static Node deleteMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.item, deleteMin(node.left), node.right);
+    }
+
+    /**
+     * Crée un nœud en rétablissant l'équilibre AVL par une ou deux rotations si nécessaire.
+     */
+    private static Node balance(WebGroceryItem item, Node left, Node right) {
+        int difference = height(left) - height(right);
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node(left.item, left.left, new Node(item, left.right, right));
+            }
+            return new Node(left.right.item,
+                    new Node(left.item, left.left, left.right.left),
+                    new Node(item, left.right.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node(right.item, new Node(item, left, right.left), right.right);
+            }
+            return new Node(right.left.item,
+                    new Node(item, left, right.left.left),
+                    new Node(right.item, right.left.right, right.right));
+        }
+        return new Node(item, left, right);
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static final class Node {
+        private final WebGroceryItem item;
+        private final Node left;
+        private final Node right;
+        private final int height;
+        private final int size;
+
+        Node(WebGroceryItem item, Node left, Node right) {
+            this.item = item;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+}
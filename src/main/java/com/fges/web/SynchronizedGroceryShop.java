@@ -1,24 +1,49 @@
 package com.fges.web;
 
+import com.fges.metrics.MetricsRegistry;
+import com.fges.model.GroceryItem;
 import com.fges.model.GroceryManager;
 import com.fges.model.CommandOptions;
+import com.fges.storage.FileLockManager;
+import com.fges.storage.WriteBehindFlusher;
+import com.fges.util.ThreadModel;
 
 import fr.anthonyquere.MyGroceryShop;
 
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Implémentation de MyGroceryShop qui synchronise les modifications
  * avec le GroceryManager sous-jacent.
+ * Les sauvegardes sont différées et regroupées par un {@link WriteBehindFlusher}, et les messages
+ * de suivi sont écrits par un exécuteur dédié : le thread d'une requête ne fait aucune entrée/sortie.
+ * Ces tâches de fond tournent sur des threads virtuels ou système selon {@link ThreadModel}.
+ * <p>
+ * Le magasin peut être partagé entre plusieurs threads. Une modification est une mise à jour
+ * du GroceryManager, sous son verrou d'écriture, suivie d'un signal au flusher. Sous le même
+ * verrou, elle publie la version suivante de la liste triée par nom ({@link GrocerySnapshot}),
+ * qui ne recopie que le chemin de l'article modifié. Les lectures renvoient la version publiée
+ * sans verrou ni copie. Si le gestionnaire a changé sans passer par le magasin (rechargement),
+ * la liste est reconstruite une fois.
  */
 public class SynchronizedGroceryShop implements MyGroceryShop {
-    private final List<WebGroceryItem> groceries = new ArrayList<>();
+    // Version publiée de la liste, avec la version du gestionnaire qu'elle reflète ;
+    // remplacée sous le verrou d'écriture du gestionnaire, lue sans verrou
+    private final AtomicReference<PublishedList> published =
+            new AtomicReference<>(new PublishedList(-1, GrocerySnapshot.EMPTY));
     private final GroceryManager groceryManager;
+    private final ExecutorService logExecutor;
     private final String fileName;
+    private final long lockTimeoutMillis;
+    private final WriteBehindFlusher flusher;
 
     /**
      * Construit une nouvelle instance avec le gestionnaire fourni.
@@ -30,7 +55,10 @@ public class SynchronizedGroceryShop implements MyGroceryShop {
     public SynchronizedGroceryShop(GroceryManager groceryManager, CommandOptions options) {
         this.groceryManager = groceryManager;
         this.fileName = options.getFileName();
-        initializeFromGroceryManager();
+        this.lockTimeoutMillis = options.getLockTimeoutMillis();
+        this.logExecutor = createLogExecutor(options.getWebThreads());
+        this.flusher = createFlusher(options);
+        republish();
     }
 
     /**
@@ -42,131 +70,257 @@ public class SynchronizedGroceryShop implements MyGroceryShop {
     public SynchronizedGroceryShop(GroceryManager groceryManager) {
         this.groceryManager = groceryManager;
         this.fileName = null;
-        initializeFromGroceryManager();
-    }
-
-    /**
-     * Initialise les articles depuis le gestionnaire.
-     */
-    private void initializeFromGroceryManager() {
-        // Récupérer les articles par catégorie
-        Map<String, List<String>> itemsByCategory = groceryManager.getGroceryListByCategory();
-        
-        // Parcourir les articles et les ajouter à la liste locale
-        for (Map.Entry<String, List<String>> categoryEntry : itemsByCategory.entrySet()) {
-            String categoryName = categoryEntry.getKey();
-            List<String> items = categoryEntry.getValue();
-            
-            for (String itemString : items) {
-                // Analyser la chaîne au format "nom: quantité"
-                String[] parts = itemString.split(":");
-                if (parts.length >= 2) {
-                    String itemName = parts[0].trim();
-                    int quantity = Integer.parseInt(parts[1].trim());
-                    
-                    // Ajouter l'article à la liste locale sans synchroniser
-                    addItemWithoutSync(itemName, quantity, categoryName);
-                }
-            }
+        this.lockTimeoutMillis = 0;
+        this.logExecutor = createLogExecutor(ThreadModel.DEFAULT);
+        this.flusher = null;
+        republish();
+    }
+
+    /**
+     * Crée le flusher des sauvegardes différées ; {@link #close()} l'arrête.
+     *
+     * @param options les options de commande (fichier, délai et seuil de sauvegarde)
+     * @return le flusher, ou null si aucun fichier n'est associé
+     */
+    private WriteBehindFlusher createFlusher(CommandOptions options) {
+        if (fileName == null) {
+            return null;
         }
+
+        WriteBehindFlusher writeBehindFlusher = new WriteBehindFlusher(
+                this::saveGroceryList, options.getFlushDelayMillis(), options.getFlushMaxPendingOps(),
+                options.getWebThreads().threadFactory("grocery-shop-flusher"));
+        writeBehindFlusher.registerMetrics(MetricsRegistry.getDefault(), "web");
+        return writeBehindFlusher;
     }
 
-    @Override
-    public List<WebGroceryItem> getGroceries() {
-        return new ArrayList<>(groceries);
+    /**
+     * Crée l'exécuteur des messages de suivi : un seul thread, pour conserver l'ordre des messages.
+     */
+    private static ExecutorService createLogExecutor(ThreadModel threadModel) {
+        return Executors.newSingleThreadExecutor(threadModel.threadFactory("grocery-shop-log"));
+    }
+
+    /**
+     * Sauvegarde la liste ; exécutée par le flusher, en exclusion mutuelle avec les autres
+     * processus grâce au verrou du fichier. Les modifications ne sont bloquées que le temps
+     * de copier les articles à écrire.
+     */
+    private void saveGroceryList() throws IOException {
+        try (FileLockManager.ListLock ignored = FileLockManager.acquireExclusive(fileName, lockTimeoutMillis)) {
+            groceryManager.saveGroceryList(fileName);
+        }
+    }
+
+    /**
+     * Sauvegarde les modifications en attente, arrête les sauvegardes différées
+     * puis écrit les derniers messages de suivi.
+     */
+    public void close() {
+        if (flusher != null) {
+            try {
+                flusher.close();
+                log("Sauvegardes regroupées : " + flusher.getCoalescedWriteCount()
+                        + " écriture(s) évitée(s) en " + flusher.getFlushCount() + " sauvegarde(s)");
+            } catch (IOException e) {
+                logError("Erreur lors de la sauvegarde finale : " + e.getMessage());
+            }
+        }
+
+        logExecutor.shutdown();
+        try {
+            logExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
-     * Ajoute un article au magasin sans synchroniser avec le GroceryManager.
-     * Utilisé uniquement lors de l'initialisation.
+     * Retourne le nombre d'écritures évitées grâce au regroupement des sauvegardes.
+     *
+     * @return le nombre d'écritures regroupées
      */
-    public void addItemWithoutSync(String name, int quantity, String category) {
-        groceries.add(new WebGroceryItem(name, quantity, category));
+    public long getCoalescedWriteCount() {
+        return flusher != null ? flusher.getCoalescedWriteCount() : 0;
     }
 
     @Override
-    public void addGroceryItem(String name, int quantity, String category) {
-        // Si la catégorie est null ou vide, utilisez "default"
-        if (category == null || category.trim().isEmpty()) {
-            category = "default";
+    public List<WebGroceryItem> getGroceries() {
+        PublishedList current = published.get();
+        if (current.managerVersion() == groceryManager.getVersion()) {
+            // Liste immuable : renvoyée sans copie
+            return current.items();
         }
+        return republish().items();
+    }
 
-        // Vérifier si l'élément existe déjà
-        boolean exists = false;
-        for (WebGroceryItem item : groceries) {
-            if (item.name().equals(name)) {
-                exists = true;
-                // Modifier l'élément existant pour ajouter la quantité
-                int newQuantity = item.quantity() + quantity;
-                
-                // Supprimer l'ancien élément
-                groceries.remove(item);
-                
-                // Ajouter l'élément avec la nouvelle quantité
-                groceries.add(new WebGroceryItem(name, newQuantity, item.category()));
-                
-                // Synchroniser avec le GroceryManager
-                try {
-                    // Supprimer d'abord l'ancien élément
-                    groceryManager.removeItem(name);
-                    
-                    // Puis ajouter l'élément avec la nouvelle quantité
-                    groceryManager.addItem(name, newQuantity, item.category());
-                    
-                    // Sauvegarder les modifications si un nom de fichier est disponible
-                    if (fileName != null) {
-                        groceryManager.saveGroceryList(fileName);
-                    }
-                    
-                    System.out.println("Article mis à jour et synchronisé: " + name + " (" + newQuantity + ") dans " + item.category());
-                } catch (Exception e) {
-                    System.err.println("Erreur lors de la synchronisation de la mise à jour: " + e.getMessage());
+    /**
+     * Reconstruit la liste publiée si le gestionnaire a changé sans passer par le magasin,
+     * sous le verrou d'écriture du gestionnaire (réentrant pour les modifications).
+     *
+     * @return la liste publiée, à jour
+     */
+    private PublishedList republish() {
+        Lock writeLock = groceryManager.lock().writeLock();
+        writeLock.lock();
+        try {
+            PublishedList current = published.get();
+            if (current.managerVersion() != groceryManager.getVersion()) {
+                GrocerySnapshot items = GrocerySnapshot.EMPTY;
+                for (GroceryItem item : groceryManager.itemsView()) {
+                    items = items.with(toWebItem(item));
                 }
-                
-                break;
+                current = new PublishedList(groceryManager.getVersion(), items);
+                published.set(current);
             }
+            return current;
+        } finally {
+            writeLock.unlock();
         }
+    }
 
-        if (!exists) {
-            // Ajouter à la liste locale
-            groceries.add(new WebGroceryItem(name, quantity, category));
+    /**
+     * Convertit un article du gestionnaire directement, sans passer par sa forme texte.
+     */
+    private static WebGroceryItem toWebItem(GroceryItem item) {
+        return new WebGroceryItem(item.getName(), item.getQuantity(), normalizeCategory(item.getCategory()));
+    }
 
-            // Synchroniser avec le GroceryManager
-            try {
-                groceryManager.addItem(name, quantity, category);
-                
-                // Sauvegarder les modifications si un nom de fichier est disponible
-                if (fileName != null) {
-                    groceryManager.saveGroceryList(fileName);
-                }
-                
-                System.out.println("Article ajouté et synchronisé: " + name + " (" + quantity + ") dans " + category);
-            } catch (IOException e) {
-                System.err.println("Erreur lors de la synchronisation de l'ajout: " + e.getMessage());
-            }
+    /**
+     * Retourne la catégorie, ou "default" si elle est absente ou vide.
+     */
+    private static String normalizeCategory(String category) {
+        return category == null || category.trim().isEmpty() ? "default" : category;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Un article existant voit sa quantité augmentée ; sa catégorie n'est remplacée que si une
+     * catégorie est fournie. Une seule mise à jour du gestionnaire, atomique.
+     */
+    @Override
+    public void addGroceryItem(String name, int quantity, String category) {
+        // Catégorie absente ou vide : celle de l'article existant, sinon "default"
+        String requestedCategory = category == null || category.trim().isEmpty() ? null : category;
+        try {
+            checkOpen();
+            GroceryItem item = addAndPublish(name, quantity, requestedCategory);
+
+            // Planifier la sauvegarde si un nom de fichier est disponible
+            markDirty();
+
+            log("Article enregistré et synchronisé: " + name + " (" + item.getQuantity() + ") dans "
+                    + item.getCategory());
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            logError("Erreur lors de la synchronisation de l'ajout: " + e.getMessage());
         }
     }
 
     @Override
     public void removeGroceryItem(String name) {
-        // Supprimer de la liste locale
-        groceries.removeIf(item -> item.name().equals(name));
+        try {
+            checkOpen();
+            removeAndPublish(name);
+
+            // Planifier la sauvegarde si un nom de fichier est disponible
+            markDirty();
 
-        // Synchroniser avec le GroceryManager
+            log("Article supprimé et synchronisé: " + name);
+        } catch (Exception e) {
+            logError("Erreur lors de la synchronisation de la suppression: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ajoute l'article au gestionnaire et publie la version de la liste qui le contient,
+     * sous le même verrou d'écriture : aucun lecteur ne voit l'une sans l'autre.
+     */
+    private GroceryItem addAndPublish(String name, int quantity, String category) throws IOException {
+        Lock writeLock = groceryManager.lock().writeLock();
+        writeLock.lock();
         try {
+            GrocerySnapshot current = republish().items();
+            GroceryItem item = groceryManager.addItem(name, quantity, category);
+            published.set(new PublishedList(groceryManager.getVersion(), current.with(toWebItem(item))));
+            return item;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Retire l'article du gestionnaire et publie la version de la liste qui ne le contient plus.
+     */
+    private void removeAndPublish(String name) throws Exception {
+        Lock writeLock = groceryManager.lock().writeLock();
+        writeLock.lock();
+        try {
+            GrocerySnapshot current = republish().items();
             groceryManager.removeItem(name);
-            
-            // Sauvegarder les modifications si un nom de fichier est disponible
-            if (fileName != null) {
-                groceryManager.saveGroceryList(fileName);
+            published.set(new PublishedList(groceryManager.getVersion(), current.without(name)));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Refuse une modification une fois le magasin fermé : elle ne serait plus sauvegardée.
+     */
+    private void checkOpen() {
+        if (flusher != null && flusher.isClosed()) {
+            throw new IllegalStateException("Magasin fermé : modification refusée");
+        }
+    }
+
+    /**
+     * Signale une modification au flusher, si un fichier est associé. Si le flusher a été fermé
+     * depuis la vérification, la modification déjà appliquée est sauvegardée sans attendre.
+     */
+    private void markDirty() {
+        if (flusher == null) {
+            return;
+        }
+        try {
+            flusher.markDirty();
+        } catch (IllegalStateException e) {
+            try {
+                saveGroceryList();
+            } catch (IOException ex) {
+                logError("Erreur lors de la sauvegarde : " + ex.getMessage());
             }
-            
-            System.out.println("Article supprimé et synchronisé: " + name);
-        } catch (Exception e) {
-            System.err.println("Erreur lors de la synchronisation de la suppression: " + e.getMessage());
         }
     }
 
+    /**
+     * Écrit un message de suivi sur la sortie standard, depuis l'exécuteur des messages.
+     */
+    private void log(String message) {
+        submitLog(() -> System.out.println(message));
+    }
+
+    /**
+     * Écrit un message d'erreur sur la sortie d'erreur, depuis l'exécuteur des messages.
+     */
+    private void logError(String message) {
+        submitLog(() -> System.err.println(message));
+    }
+
+    private void submitLog(Runnable write) {
+        try {
+            logExecutor.execute(write);
+        } catch (RejectedExecutionException e) {
+            // Magasin fermé : écrire directement
+            write.run();
+        }
+    }
+
+    /**
+     * Liste triée des articles, telle qu'à une version donnée du gestionnaire.
+     */
+    private record PublishedList(long managerVersion, GrocerySnapshot items) {
+    }
+
     @Override
     public Runtime getRuntime() {
         return new Runtime(
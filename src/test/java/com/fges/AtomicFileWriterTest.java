@@ -0,0 +1,65 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.AtomicFileWriter;
+import com.fges.storage.CsvStorageManager;
+import com.fges.storage.DurabilityLevel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AtomicFileWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @EnumSource(DurabilityLevel.class)
+    @DisplayName("Devrait remplacer le contenu du fichier quel que soit le niveau de durabilité")
+    void shouldReplaceFileContent(DurabilityLevel durability) throws IOException {
+        Path target = tempDir.resolve("list.txt");
+        Files.writeString(target, "ancien contenu");
+
+        AtomicFileWriter.write(target, durability, output -> output.write("nouveau".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(target).hasContent("nouveau");
+        assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    @DisplayName("Devrait laisser le fichier intact si l'écriture échoue")
+    void shouldKeepTargetWhenWriteFails() throws IOException {
+        Path target = tempDir.resolve("list.txt");
+        Files.writeString(target, "ancien contenu");
+
+        assertThatThrownBy(() -> AtomicFileWriter.write(target, DurabilityLevel.DATA, output -> {
+            output.write("début".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Disque plein");
+        })).isInstanceOf(IOException.class).hasMessage("Disque plein");
+
+        assertThat(target).hasContent("ancien contenu");
+        assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Test
+    @DisplayName("Devrait permettre au flux d'être fermé par l'écriture")
+    void shouldAllowWriterToCloseStream() throws IOException {
+        Path target = tempDir.resolve("list.csv");
+
+        new CsvStorageManager(DurabilityLevel.FULL).saveGroceryList(
+                List.of(new GroceryItem("Pommes", 3, "Fruits")), target.toString());
+
+        assertThat(Files.readAllLines(target)).containsExactly("name,quantity,category", "Pommes,3,Fruits");
+    }
+}
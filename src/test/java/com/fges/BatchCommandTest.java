@@ -0,0 +1,163 @@
+package com.fges;
+
+import com.fges.commands.AddCommand;
+import com.fges.commands.BatchCommand;
+import com.fges.commands.ListCommand;
+import com.fges.commands.RemoveCommand;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+import com.fges.storage.JsonStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchCommandTest {
+    private GroceryManager groceryManager;
+    private ByteArrayOutputStream output;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        groceryManager = new GroceryManager(new JsonStorageManager());
+        File testFile = tempDir.resolve("test_grocery_list.json").toFile();
+        TestUtils.createEmptyJsonFile(testFile);
+        groceryManager.loadGroceryList(testFile.getPath());
+        output = new ByteArrayOutputStream();
+    }
+
+    private BatchCommand createBatchCommand(String script) {
+        return new BatchCommand(
+                name -> switch (name) {
+                    case "add" -> Optional.of(new AddCommand());
+                    case "remove" -> Optional.of(new RemoveCommand());
+                    case "list" -> Optional.of(new ListCommand());
+                    default -> Optional.empty();
+                },
+                new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter toutes les commandes lues sur l'entrée standard")
+    void shouldExecuteCommandsFromStandardInput() throws Exception {
+        BatchCommand batchCommand = createBatchCommand("""
+                add Pommes 3
+                # commentaire
+                
+                category Fruits add "Fruit de la passion" 2
+                add Pommes 1
+                remove Pommes
+                """);
+
+        String result = batchCommand.execute(List.of("batch"), groceryManager, new CommandOptions.Builder().build());
+
+        assertThat(result).contains("4 commande(s) réussie(s), 0 en erreur");
+        assertThat(groceryManager.doesItemExist("Pommes")).isFalse();
+        assertThat(groceryManager.getItemQuantity("Fruit de la passion")).isEqualTo(2);
+        assertThat(groceryManager.getItemCategory("Fruit de la passion")).isEqualTo("Fruits");
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .contains("[1] Ajouté 3 Pommes")
+                .contains("[4] Ajouté 2 Fruit de la passion dans la catégorie 'Fruits'");
+    }
+
+    @Test
+    @DisplayName("Devrait continuer après une commande en erreur et la signaler")
+    void shouldReportFailedCommandsAndContinue() throws Exception {
+        BatchCommand batchCommand = createBatchCommand("""
+                add Pommes abc
+                inconnue
+                web 8080
+                add Poires 2
+                """);
+
+        String result = batchCommand.execute(List.of("batch"), groceryManager, new CommandOptions.Builder().build());
+
+        assertThat(result).contains("1 commande(s) réussie(s), 3 en erreur");
+        assertThat(groceryManager.getItemQuantity("Poires")).isEqualTo(2);
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .contains("[1] Erreur : Quantité invalide")
+                .contains("[2] Erreur : Commande inconnue : inconnue")
+                .contains("[3] Erreur : Commande non disponible en mode lot : web");
+    }
+
+    @Test
+    @DisplayName("Ne devrait pas fermer l'entrée standard à la fin du lot")
+    void shouldNotCloseStandardInput() throws Exception {
+        boolean[] closed = {false};
+        InputStream standardInput = new ByteArrayInputStream("add Pommes 3\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        BatchCommand batchCommand = new BatchCommand(name -> Optional.of(new AddCommand()), standardInput,
+                new PrintStream(output, true, StandardCharsets.UTF_8));
+
+        batchCommand.execute(List.of("batch"), groceryManager, new CommandOptions.Builder().build());
+
+        assertThat(groceryManager.getItemQuantity("Pommes")).isEqualTo(3);
+        assertThat(closed[0]).isFalse();
+    }
+
+    @Test
+    @DisplayName("Devrait conserver les options du lot et remplacer la catégorie de la ligne")
+    void shouldKeepBatchOptionsAndOverrideLineCategory() throws Exception {
+        CommandOptions[] received = new CommandOptions[1];
+        BatchCommand batchCommand = new BatchCommand(name -> Optional.of((args, manager, options) -> {
+            received[0] = options;
+            return "ok";
+        }), new ByteArrayInputStream(new byte[0]), new PrintStream(output, true, StandardCharsets.UTF_8));
+        CommandOptions options = new CommandOptions.Builder()
+                .fileName("courses.json")
+                .lockTimeoutMillis(42)
+                .metricsPort(9100)
+                .build();
+
+        batchCommand.executeLine(List.of("category", "Fruits", "add", "Pommes"), groceryManager, options);
+
+        assertThat(received[0].getCategory()).isEqualTo("Fruits");
+        assertThat(received[0].getFileName()).isEqualTo("courses.json");
+        assertThat(received[0].getLockTimeoutMillis()).isEqualTo(42);
+        assertThat(received[0].getMetricsPort()).isEqualTo(9100);
+    }
+
+    @Test
+    @DisplayName("Devrait lire les commandes depuis un fichier")
+    void shouldReadCommandsFromFile() throws Exception {
+        Path script = tempDir.resolve("script.txt");
+        Files.writeString(script, "add Lait 2\nadd Lait 1\n");
+        BatchCommand batchCommand = createBatchCommand("");
+
+        batchCommand.execute(List.of("batch", script.toString()), groceryManager, new CommandOptions.Builder().build());
+
+        assertThat(groceryManager.getItemQuantity("Lait")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Devrait découper une ligne en respectant les guillemets")
+    void shouldTokenizeQuotedArguments() {
+        assertThat(BatchCommand.tokenize("  add \"Pain complet\"  2 "))
+                .containsExactly("add", "Pain complet", "2");
+        assertThatThrownBy(() -> BatchCommand.tokenize("add \"Pain 2"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
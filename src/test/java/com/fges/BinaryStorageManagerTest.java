@@ -0,0 +1,101 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.BinaryStorageManager;
+import com.fges.storage.StreamingJsonStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BinaryStorageManagerTest {
+    private BinaryStorageManager storageManager;
+    private Path file;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        storageManager = new BinaryStorageManager();
+        file = tempDir.resolve("list.bin");
+    }
+
+    @Test
+    @DisplayName("Devrait relire les articles sauvegardés")
+    void shouldRoundTripItems() throws IOException {
+        List<GroceryItem> items = List.of(
+                new GroceryItem("Pommes", 3, "Fruits"),
+                new GroceryItem("Crème fraîche", -2, "Crèmerie"),
+                new GroceryItem("Poires", Integer.MAX_VALUE, "Fruits"),
+                new GroceryItem("Sel", Integer.MIN_VALUE, "default"));
+
+        storageManager.saveGroceryList(items, file.toString());
+        List<GroceryItem> loaded = storageManager.loadGroceryList(file.toString());
+
+        assertThat(loaded)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactly(
+                        tuple("Pommes", 3, "Fruits"),
+                        tuple("Crème fraîche", -2, "Crèmerie"),
+                        tuple("Poires", Integer.MAX_VALUE, "Fruits"),
+                        tuple("Sel", Integer.MIN_VALUE, "default"));
+    }
+
+    @Test
+    @DisplayName("Devrait retourner une liste vide pour un fichier vide")
+    void shouldReturnEmptyListForEmptyFile() throws IOException {
+        Files.createFile(file);
+
+        assertThat(storageManager.loadGroceryList(file.toString())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Devrait produire un fichier plus petit que le JSON")
+    void shouldBeSmallerThanJson() throws IOException {
+        List<GroceryItem> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(new GroceryItem("Article " + i, i % 50, "Rayon " + (i % 8)));
+        }
+        Path jsonFile = tempDir.resolve("list.json");
+
+        storageManager.saveGroceryList(items, file.toString());
+        new StreamingJsonStorageManager().saveGroceryList(items, jsonFile.toString());
+
+        assertThat(Files.size(file)).isLessThan(Files.size(jsonFile) / 2);
+    }
+
+    @Test
+    @DisplayName("Devrait rejeter un fichier qui n'est pas au format binaire")
+    void shouldRejectForeignFile() throws IOException {
+        Files.writeString(file, "[{\"name\":\"Pommes\"}]");
+
+        assertThatThrownBy(() -> storageManager.loadGroceryList(file.toString()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("n'est pas une liste de courses binaire");
+    }
+
+    @Test
+    @DisplayName("Devrait rejeter un fichier tronqué")
+    void shouldRejectTruncatedFile() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), file.toString());
+        byte[] content = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(content, content.length - 2));
+
+        assertThatThrownBy(() -> storageManager.loadGroceryList(file.toString()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("tronqué");
+    }
+}
@@ -118,4 +118,66 @@ class CategoryManagerTest {
         assertTrue(allCategories.containsKey("vegetables"));
         assertTrue(allCategories.containsKey("default"));
     }
-} 
\ No newline at end of file
+    
+    @Test
+    void shouldRemoveEmptyCategoryAndRecreateIt() {
+        // Arrange
+        categoryManager.addItemToCategory("apple", "fruits");
+        categoryManager.removeItem("apple");
+        
+        // Act
+        boolean existsAfterRemoval = categoryManager.categoryExists("fruits");
+        categoryManager.addItemToCategory("pear", "fruits");
+        
+        // Assert
+        assertFalse(existsAfterRemoval);
+        assertTrue(categoryManager.categoryExists("fruits"));
+        assertEquals(List.of("pear"), categoryManager.getItemsInCategory("fruits"));
+    }
+    
+    @Test
+    void shouldKeepItemsConsistentAcrossManyAdditionsAndRemovals() {
+        // Arrange
+        for (int i = 0; i < 1000; i++) {
+            categoryManager.addItemToCategory("item" + i, "category" + (i % 7));
+        }
+        
+        // Act
+        for (int i = 0; i < 1000; i += 2) {
+            categoryManager.removeItem("item" + i);
+        }
+        for (int i = 1000; i < 1200; i++) {
+            categoryManager.addItemToCategory("item" + i, "category" + (i % 7));
+        }
+        
+        // Assert
+        for (int i = 0; i < 1200; i++) {
+            boolean expected = i >= 1000 || i % 2 == 1;
+            assertEquals(expected, categoryManager.containsItem("item" + i), "item" + i);
+            if (expected) {
+                assertEquals("category" + (i % 7), categoryManager.getItemCategory("item" + i));
+            }
+        }
+        int total = 0;
+        for (int c = 0; c < 7; c++) {
+            total += categoryManager.getItemsInCategory("category" + c).size();
+        }
+        assertEquals(700, total);
+    }
+
+    @Test
+    void shouldForgetCategoryOrderWhenCleared() {
+        // Arrange
+        categoryManager.addItemToCategory("apple", "fruits", 2);
+        categoryManager.addItemToCategory("carrot", "vegetables", 1);
+
+        // Act
+        categoryManager.clear();
+        categoryManager.addItemToCategory("carrot", "vegetables", 1);
+        categoryManager.addItemToCategory("apple", "fruits", 2);
+
+        // Assert
+        assertEquals(List.of("vegetables", "fruits"), categoryManager.getNonEmptyCategories());
+        assertEquals(Set.of("default", "vegetables", "fruits"), categoryManager.getAllCategories().keySet());
+    }
+}
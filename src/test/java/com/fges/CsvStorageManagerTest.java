@@ -0,0 +1,143 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.CsvStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CsvStorageManagerTest {
+    private CsvStorageManager storageManager;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        storageManager = new CsvStorageManager();
+    }
+
+    private List<GroceryItem> load(String content) throws IOException {
+        Path file = tempDir.resolve("list.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return storageManager.loadGroceryList(file.toString());
+    }
+
+    @Test
+    @DisplayName("Devrait relire les articles sauvegardés, y compris les caractères spéciaux")
+    void shouldRoundTripItems() throws IOException {
+        Path file = tempDir.resolve("list.csv");
+        List<GroceryItem> items = List.of(
+                new GroceryItem("Pommes", 3, "Fruits"),
+                new GroceryItem("Sel, gros", 1, "Épicerie"),
+                new GroceryItem("Pain \"complet\"", 2, "default"),
+                new GroceryItem("Crème\nfraîche", -1, "Crèmerie"));
+
+        storageManager.saveGroceryList(items, file.toString());
+        List<GroceryItem> loaded = storageManager.loadGroceryList(file.toString());
+
+        assertThat(loaded)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactly(
+                        tuple("Pommes", 3, "Fruits"),
+                        tuple("Sel, gros", 1, "Épicerie"),
+                        tuple("Pain \"complet\"", 2, "default"),
+                        tuple("Crème\nfraîche", -1, "Crèmerie"));
+    }
+
+    @Test
+    @DisplayName("Devrait lire l'ancien format sans en-tête")
+    void shouldLoadLegacyFormat() throws IOException {
+        List<GroceryItem> loaded = load("Lait,2\r\nOeufs,12\r\n");
+
+        assertThat(loaded)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactly(tuple("Lait", 2, "default"), tuple("Oeufs", 12, "default"));
+    }
+
+    @Test
+    @DisplayName("Devrait ignorer les lignes vides, incomplètes ou aux quantités invalides")
+    void shouldSkipInvalidLines() throws IOException {
+        List<GroceryItem> loaded = load("""
+                NAME,Quantity,Category
+
+                Pommes,trois,Fruits
+                Poires,3
+                Kiwis,99999999999,Fruits
+                  Lait,2,  
+                Beurre,+1,Crèmerie
+                """);
+
+        assertThat(loaded)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactly(tuple("Lait", 2, "default"), tuple("Beurre", 1, "Crèmerie"));
+    }
+
+    @Test
+    @DisplayName("Devrait retourner une liste vide pour un fichier vide")
+    void shouldReturnEmptyListForEmptyFile() throws IOException {
+        assertThat(load("")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Devrait charger en parallèle le même contenu que le chargement séquentiel")
+    void shouldLoadInParallelLikeSequentialLoad() throws IOException {
+        Path file = tempDir.resolve("large.csv");
+        List<GroceryItem> items = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            // Noms avec virgules, guillemets et retours à la ligne pour éprouver le découpage
+            String name = i % 7 == 0 ? "Article \"" + i + "\", lot" : i % 13 == 0 ? "Article\n" + i : "Article " + i;
+            items.add(new GroceryItem(name, i % 100, "Rayon " + (i % 9)));
+        }
+        // Un doublon en fin de fichier doit rester après l'original
+        items.add(new GroceryItem("Article 1", 42, "Rayon 1"));
+        storageManager.saveGroceryList(items, file.toString());
+
+        List<GroceryItem> sequential = new CsvStorageManager(Long.MAX_VALUE).loadGroceryList(file.toString());
+        List<GroceryItem> parallel = new CsvStorageManager(0).loadGroceryList(file.toString());
+
+        assertThat(parallel).hasSize(items.size());
+        assertThat(parallel)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactlyElementsOf(sequential.stream()
+                        .map(item -> tuple(item.getName(), item.getQuantity(), item.getCategory()))
+                        .toList());
+        assertThat(parallel.get(parallel.size() - 1).getQuantity()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Devrait découper le fichier en ignorant les guillemets au milieu d'un champ")
+    void shouldSplitFileIgnoringQuotesInsideUnquotedFields() throws IOException {
+        Path file = tempDir.resolve("quotes.csv");
+        // Un guillemet littéral au milieu du premier nom, puis des noms entre guillemets sur deux lignes :
+        // compter tous les guillemets ferait couper les tranches au milieu de ces noms
+        StringBuilder content = new StringBuilder("name,quantity,category\nVis 5\" inox,2,Bricolage\n");
+        for (int i = 1; i < 50_000; i++) {
+            content.append("\"Vis\n").append(i).append("\",1,Bricolage\n");
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        List<GroceryItem> sequential = new CsvStorageManager(Long.MAX_VALUE).loadGroceryList(file.toString());
+        List<GroceryItem> parallel = new CsvStorageManager(0).loadGroceryList(file.toString());
+
+        assertThat(sequential).hasSize(50_000);
+        assertThat(sequential.get(0).getName()).isEqualTo("Vis 5\" inox");
+        assertThat(parallel)
+                .extracting(GroceryItem::getName, GroceryItem::getQuantity, GroceryItem::getCategory)
+                .containsExactlyElementsOf(sequential.stream()
+                        .map(item -> tuple(item.getName(), item.getQuantity(), item.getCategory()))
+                        .toList());
+    }
+}
@@ -0,0 +1,98 @@
+package com.fges;
+
+import com.fges.storage.FileLockManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileLockManagerTest {
+    private String fileName;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() {
+        fileName = tempDir.resolve("groceries.json").toString();
+    }
+
+    @Test
+    @DisplayName("Devrait créer le fichier de verrou à côté de la liste")
+    void shouldCreateSidecarLockFile() throws IOException {
+        try (FileLockManager.ListLock lock = FileLockManager.acquireShared(fileName, 100)) {
+            assertThat(lock.isShared()).isTrue();
+            assertThat(tempDir.resolve("groceries.json.lock")).exists();
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait abandonner après le délai si la liste est verrouillée")
+    void shouldTimeOutWhenLocked() throws IOException {
+        long timeoutsBefore = FileLockManager.getStatistics().timeouts();
+
+        try (FileLockManager.ListLock ignored = FileLockManager.acquireExclusive(fileName, 100)) {
+            assertThatThrownBy(() -> FileLockManager.acquireExclusive(fileName, 50))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("verrouillé");
+        }
+
+        assertThat(FileLockManager.getStatistics().timeouts()).isGreaterThan(timeoutsBefore);
+    }
+
+    @Test
+    @DisplayName("Devrait attendre la libération du verrou et comptabiliser l'attente")
+    void shouldWaitForReleaseAndRecordContention() throws Exception {
+        long contendedBefore = FileLockManager.getStatistics().contendedAcquisitions();
+        FileLockManager.ListLock holder = FileLockManager.acquireExclusive(fileName, 100);
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> {
+            try (FileLockManager.ListLock lock = FileLockManager.acquireExclusive(fileName, 5_000)) {
+                return lock.getWaitedMillis();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        Thread.sleep(100);
+        holder.close();
+
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isGreaterThanOrEqualTo(50);
+        assertThat(FileLockManager.getStatistics().contendedAcquisitions()).isGreaterThan(contendedBefore);
+    }
+
+    @Test
+    @DisplayName("Devrait garder le verrou du détenteur quand une autre attente expire")
+    void shouldKeepHolderLockWhenAnotherWaiterTimesOut() throws Exception {
+        try (FileLockManager.ListLock holder = FileLockManager.acquireExclusive(fileName, 100)) {
+            for (int attempt = 0; attempt < 2; attempt++) {
+                CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+                    try (FileLockManager.ListLock ignored = FileLockManager.acquireShared(fileName, 50)) {
+                        throw new IllegalStateException("Le verrou aurait dû rester exclusif");
+                    } catch (IOException e) {
+                        assertThat(e).hasMessageContaining("verrouillé");
+                    }
+                });
+                waiter.get(5, TimeUnit.SECONDS);
+            }
+            assertThat(holder.isShared()).isFalse();
+        }
+
+        CompletableFuture<Boolean> next = CompletableFuture.supplyAsync(() -> {
+            try (FileLockManager.ListLock lock = FileLockManager.acquireExclusive(fileName, 100)) {
+                return !lock.isShared();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(next.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+}
@@ -0,0 +1,133 @@
+package com.fges;
+
+import com.fges.commands.AddCommand;
+import com.fges.commands.ListCommand;
+import com.fges.commands.RemoveCommand;
+import com.fges.daemon.GroceryDaemon;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+import com.fges.storage.JsonStorageManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroceryDaemonTest {
+    private GroceryManager groceryManager;
+    private GroceryDaemon daemon;
+    private Path socketPath;
+    private File testFile;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        groceryManager = new GroceryManager(new JsonStorageManager());
+        testFile = tempDir.resolve("test_grocery_list.json").toFile();
+        TestUtils.createEmptyJsonFile(testFile);
+        groceryManager.loadGroceryList(testFile.getPath());
+
+        socketPath = tempDir.resolve("grocery.sock");
+        CommandOptions options = new CommandOptions.Builder()
+                .fileName(testFile.getPath())
+                .flushDelayMillis(10_000)
+                .build();
+        daemon = new GroceryDaemon(groceryManager, options, name -> switch (name) {
+            case "add" -> Optional.of(new AddCommand());
+            case "remove" -> Optional.of(new RemoveCommand());
+            case "list" -> Optional.of(new ListCommand());
+            default -> Optional.empty();
+        }, socketPath);
+        daemon.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemon.close();
+    }
+
+    /**
+     * Envoie des commandes au démon et retourne la réponse à chacune, sans le marqueur de fin.
+     */
+    private List<String> send(String... commands) throws IOException {
+        List<String> responses = new ArrayList<>();
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            PrintWriter writer = new PrintWriter(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+            BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+            for (String command : commands) {
+                writer.println(command);
+                StringBuilder response = new StringBuilder();
+                String line;
+                while (!(line = reader.readLine()).equals(".")) {
+                    response.append(line).append("\n");
+                }
+                responses.add(response.toString());
+            }
+        }
+        return responses;
+    }
+
+    @Test
+    @DisplayName("Devrait exécuter les commandes reçues sur la socket")
+    void shouldExecuteCommandsReceivedOnSocket() throws IOException {
+        List<String> responses = send("add Pommes 3", "category Fruits add \"Fruit de la passion\" 2", "list");
+
+        assertThat(responses.get(0)).startsWith("OK\n").contains("Ajouté 3 Pommes");
+        assertThat(responses.get(1)).startsWith("OK\n");
+        assertThat(responses.get(2)).contains("Pommes: 3").contains("Fruit de la passion: 2");
+        assertThat(groceryManager.getItemCategory("Fruit de la passion")).isEqualTo("Fruits");
+    }
+
+    @Test
+    @DisplayName("Devrait signaler une erreur sans interrompre la connexion")
+    void shouldReportErrorsAndKeepConnection() throws IOException {
+        List<String> responses = send("remove Inconnu", "daemon autre.sock", "add Lait 1");
+
+        assertThat(responses.get(0)).startsWith("ERREUR\n");
+        assertThat(responses.get(1)).startsWith("ERREUR\n").contains("non disponible");
+        assertThat(responses.get(2)).startsWith("OK\n");
+    }
+
+    @Test
+    @DisplayName("Devrait sauvegarder les modifications et supprimer la socket à l'arrêt")
+    void shouldSaveAndRemoveSocketOnClose() throws IOException {
+        send("add Lait 2");
+
+        daemon.close();
+
+        assertThat(socketPath).doesNotExist();
+        GroceryManager reloaded = new GroceryManager(new JsonStorageManager());
+        reloaded.loadGroceryList(testFile.getPath());
+        assertThat(reloaded.getItemQuantity("Lait")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Devrait refuser de démarrer si un démon écoute déjà sur la socket")
+    void shouldRefuseSocketAlreadyInUse() {
+        GroceryDaemon second = new GroceryDaemon(groceryManager, new CommandOptions.Builder().build(),
+                name -> Optional.empty(), socketPath);
+
+        assertThatThrownBy(second::start).isInstanceOf(IOException.class).hasMessageContaining("déjà");
+        assertThat(Files.exists(socketPath)).isTrue();
+    }
+}
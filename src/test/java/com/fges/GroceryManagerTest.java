@@ -1,21 +1,34 @@
 package com.fges;
 
+import com.fges.model.CategoryStats;
 import com.fges.model.GroceryItem;
 import com.fges.model.GroceryManager;
+import com.fges.model.ItemChange;
 import com.fges.storage.JsonStorageManager;
 import com.fges.storage.StorageManager;
+import com.fges.storage.StorageManagerFactory;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -213,4 +226,289 @@ class GroceryManagerTest {
         // Assert
         assertEquals(2, items.size());
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Devrait garder la dernière occurrence d'un article en double au chargement")
+    void shouldKeepLastOccurrenceOfDuplicateItemOnLoad() throws Exception {
+        // Arrange
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("[{\"name\":\"apple\",\"quantity\":1,\"category\":\"fruits\"},"
+                    + "{\"name\":\"carrot\",\"quantity\":3,\"category\":\"vegetables\"},"
+                    + "{\"name\":\"apple\",\"quantity\":7,\"category\":\"fruits\"}]");
+        }
+        
+        // Act
+        GroceryManager newManager = new GroceryManager(storageManager);
+        newManager.loadGroceryList(testFile.getPath());
+        
+        // Assert
+        assertEquals(7, newManager.getItemQuantity("apple"));
+        assertEquals(2, newManager.getItems().size());
+        assertEquals("apple", newManager.getItems().get(0).getName());
+    }
+    
+    @Test
+    @DisplayName("Devrait garder l'index cohérent après mise à jour et suppression")
+    void shouldKeepIndexConsistentAfterUpdateAndRemove() throws Exception {
+        // Arrange
+        groceryManager.addItem("apple", 5, "fruits");
+        groceryManager.addItem("banana", 2, "fruits");
+        
+        // Act
+        groceryManager.updateItem("apple", 9, "snacks");
+        groceryManager.removeItem("banana");
+        
+        // Assert
+        assertEquals(9, groceryManager.getItemQuantity("apple"));
+        assertEquals("snacks", groceryManager.getItemCategory("apple"));
+        assertFalse(groceryManager.doesItemExist("banana"));
+        assertEquals(List.of("apple: 9"), groceryManager.getItemsInCategory("snacks"));
+    }
+
+    @Nested
+    @DisplayName("Tests pour les agrégats par catégorie")
+    class CategoryStatsTests {
+        @Test
+        @DisplayName("Devrait tenir les agrégats à jour lors des ajouts, modifications et suppressions")
+        void shouldMaintainAggregates() throws Exception {
+            groceryManager.addItem("Apple", 5, "Fruits");
+            groceryManager.addItem("Banana", 2, "Fruits");
+            groceryManager.addItem("Apple", 3, "Fruits");
+            groceryManager.addItem("Carrot", 4, "Vegetables");
+            groceryManager.updateItem("Banana", 0, "Vegetables");
+            groceryManager.removeItem("Carrot");
+
+            assertThat(groceryManager.getCategoryStats()).containsExactly(
+                    new CategoryStats("Fruits", 1, 8),
+                    new CategoryStats("Vegetables", 1, 2));
+            assertThat(groceryManager.getCategoryStats("Meat")).isEqualTo(new CategoryStats("Meat", 0, 0));
+        }
+
+        @Test
+        @DisplayName("Devrait calculer les agrégats au chargement")
+        void shouldComputeAggregatesOnLoad() throws Exception {
+            groceryManager.addItem("Apple", 5, "Fruits");
+            groceryManager.addItem("Carrot", 4, "Vegetables");
+            groceryManager.saveGroceryList(testFile.getPath());
+
+            GroceryManager reloaded = new GroceryManager(storageManager);
+            reloaded.loadGroceryList(testFile.getPath());
+
+            assertThat(reloaded.getCategoryStats()).containsExactly(
+                    new CategoryStats("Fruits", 1, 5),
+                    new CategoryStats("Vegetables", 1, 4));
+            assertThat(reloaded.getGroceryListByCategory())
+                    .containsEntry("Fruits", List.of("Apple: 5"))
+                    .containsEntry("Vegetables", List.of("Carrot: 4"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests pour le suivi des modifications")
+    class DirtyTrackingTests {
+        private final List<String> savedFiles = new ArrayList<>();
+        private GroceryManager trackedManager;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            // Stockage qui enregistre les sauvegardes complètes effectuées
+            trackedManager = new GroceryManager(new JsonStorageManager() {
+                @Override
+                public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+                    savedFiles.add(fileName);
+                    super.saveGroceryList(items, fileName);
+                }
+            });
+            trackedManager.loadGroceryList(testFile.getPath());
+        }
+
+        @Test
+        @DisplayName("Ne devrait rien écrire si la liste n'a pas changé")
+        void shouldNotWriteUnchangedList() throws Exception {
+            assertThatThrownBy(() -> trackedManager.removeItem("unknown"));
+
+            trackedManager.saveGroceryList(testFile.getPath());
+
+            assertFalse(trackedManager.isDirty());
+            assertThat(savedFiles).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Devrait sauvegarder une fois puis ne plus rien écrire")
+        void shouldWriteOnlyWhenDirty() throws Exception {
+            trackedManager.addItem("apple", 2, "fruits");
+            assertTrue(trackedManager.isDirty());
+
+            trackedManager.saveGroceryList(testFile.getPath());
+            trackedManager.saveGroceryList(testFile.getPath());
+
+            assertFalse(trackedManager.isDirty());
+            assertThat(savedFiles).containsExactly(testFile.getPath());
+        }
+
+        @Test
+        @DisplayName("Devrait écrire la liste complète dans un autre fichier même sans modification")
+        void shouldWriteToOtherFileEvenWhenClean() throws Exception {
+            String otherFile = tempDir.resolve("other.json").toString();
+
+            trackedManager.saveGroceryList(otherFile);
+
+            assertThat(savedFiles).containsExactly(otherFile);
+        }
+
+        @Test
+        @DisplayName("Devrait garder une seule modification par article, la plus récente")
+        void shouldCoalesceChangesPerItem() throws Exception {
+            trackedManager.addItem("apple", 2, "fruits");
+            trackedManager.addItem("carrot", 1, "vegetables");
+            trackedManager.addItem("apple", 3, "fruits");
+            trackedManager.updateItem("carrot", 1, "vegetables");
+            trackedManager.removeItem("carrot");
+
+            List<ItemChange> changes = trackedManager.getPendingChanges();
+
+            assertThat(changes).extracting(ItemChange::name).containsExactly("apple", "carrot");
+            assertThat(changes.get(0).item().getQuantity()).isEqualTo(5);
+            assertThat(changes.get(1).isRemoval()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests pour les écritures d'autres processus")
+    class ExternalWriteTests {
+        @ParameterizedTest
+        @ValueSource(strings = {"json", "csv", "bin", "journal"})
+        @DisplayName("Ne devrait pas écraser un ajout fait par un autre processus entre chargement et sauvegarde")
+        void shouldKeepItemAddedBetweenLoadAndSave(String format) throws Exception {
+            String file = tempDir.resolve("shared." + format).toString();
+            StorageManagerFactory.createStorageManager(format).saveGroceryList(List.of(), file);
+
+            // Serveur : charge la liste, puis ne verrouille le fichier que pour sauvegarder
+            GroceryManager server = new GroceryManager(StorageManagerFactory.createStorageManager(format));
+            server.loadGroceryList(file);
+
+            // Tâche planifiée : un "add" ponctuel entre le chargement et la sauvegarde du serveur
+            GroceryManager cron = new GroceryManager(StorageManagerFactory.createStorageManager(format));
+            cron.loadGroceryList(file);
+            cron.addItem("Pain", 1, "Boulangerie");
+            cron.saveGroceryList(file);
+
+            server.addItem("Lait", 2, "Crèmerie");
+            server.saveGroceryList(file);
+
+            assertThat(StorageManagerFactory.createStorageManager(format).loadGroceryList(file))
+                    .extracting(GroceryItem::getName).containsExactlyInAnyOrder("Pain", "Lait");
+            assertThat(server.getItemQuantity("Pain")).isEqualTo(1);
+            assertThat(server.getItemQuantity("Lait")).isEqualTo(2);
+            assertFalse(server.isDirty());
+        }
+
+        @Test
+        @DisplayName("Devrait réappliquer les suppressions en attente sur la liste rechargée")
+        void shouldReplayPendingRemovalOnReloadedList() throws Exception {
+            groceryManager.addItem("apple", 2, "fruits");
+            groceryManager.addItem("banana", 1, "fruits");
+            groceryManager.saveGroceryList(testFile.getPath());
+
+            GroceryManager cron = new GroceryManager(new JsonStorageManager());
+            cron.loadGroceryList(testFile.getPath());
+            cron.addItem("carrot", 4, "vegetables");
+            cron.saveGroceryList(testFile.getPath());
+
+            groceryManager.removeItem("apple");
+            groceryManager.saveGroceryList(testFile.getPath());
+
+            assertThat(storageManager.loadGroceryList(testFile.getPath()))
+                    .extracting(GroceryItem::getName).containsExactly("banana", "carrot");
+        }
+    }
+
+    @Nested
+    @DisplayName("Tests pour l'accès concurrent")
+    class ConcurrencyTests {
+        @Test
+        @DisplayName("Devrait renvoyer la nouvelle version de l'article et changer de version")
+        void shouldReturnUpdatedItemAndBumpVersion() throws Exception {
+            long before = groceryManager.getVersion();
+
+            groceryManager.addItem("apple", 2, "fruits");
+            GroceryItem item = groceryManager.addItem("apple", 3, null);
+
+            assertThat(item.getQuantity()).isEqualTo(5);
+            assertThat(item.getCategory()).isEqualTo("fruits");
+            assertThat(groceryManager.getVersion()).isEqualTo(before + 2);
+        }
+
+        @Test
+        @DisplayName("Devrait cumuler sans perte les ajouts de plusieurs threads")
+        void shouldNotLoseConcurrentAdditions() throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 800; i++) {
+                    String name = "item" + (i % 10);
+                    futures.add(executor.submit(() -> {
+                        groceryManager.addItem(name, 1, "category");
+                        return groceryManager.getItems();
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            for (int i = 0; i < 10; i++) {
+                assertThat(groceryManager.getItemQuantity("item" + i)).isEqualTo(80);
+            }
+            assertThat(groceryManager.getCategoryStats("category").totalQuantity()).isEqualTo(800);
+        }
+
+        @Test
+        @DisplayName("Devrait accepter les modifications pendant une sauvegarde et les garder en attente")
+        void shouldKeepChangesMadeDuringSaveDirty() throws Exception {
+            CountDownLatch writing = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            GroceryManager manager = new GroceryManager(new StorageManager() {
+                @Override
+                public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+                    writing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    storageManager.saveGroceryList(items, fileName);
+                }
+
+                @Override
+                public List<GroceryItem> loadGroceryList(String fileName) throws IOException {
+                    return storageManager.loadGroceryList(fileName);
+                }
+            });
+            manager.loadGroceryList(testFile.getPath());
+            manager.addItem("apple", 2, "fruits");
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> save = executor.submit(() -> {
+                    manager.saveGroceryList(testFile.getPath());
+                    return null;
+                });
+                assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+                // Le fichier est en cours d'écriture : la liste reste modifiable
+                manager.addItem("banana", 1, "fruits");
+                release.countDown();
+                save.get(5, TimeUnit.SECONDS);
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(manager.getPendingChanges()).extracting(ItemChange::name).containsExactly("banana");
+            assertThat(storageManager.loadGroceryList(testFile.getPath()))
+                    .extracting(GroceryItem::getName).containsExactly("apple");
+        }
+    }
+}
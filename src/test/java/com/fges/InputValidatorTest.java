@@ -114,6 +114,12 @@ class InputValidatorTest {
             assertTrue(InputValidator.isValidStorageFormat("csv"));
         }
 
+        @Test
+        @DisplayName("Devrait accepter le format binaire")
+        void shouldAcceptBinaryFormat() {
+            assertTrue(InputValidator.isValidStorageFormat("bin"));
+        }
+
         @Test
         @DisplayName("Devrait rejeter un format null")
         void shouldRejectNullFormat() {
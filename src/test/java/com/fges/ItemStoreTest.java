@@ -0,0 +1,134 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.ItemStore;
+import com.fges.model.ItemStoreFactory;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ItemStoreTest {
+
+    private static List<String> names(ItemStore store) {
+        return store.toList().stream().map(GroceryItem::getName).toList();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait retrouver un article enregistré")
+    void shouldGetStoredItem(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+
+        store.put(new GroceryItem("Lait", 2, "Crèmerie"));
+
+        GroceryItem item = store.get("Lait");
+        assertThat(item.getName()).isEqualTo("Lait");
+        assertThat(item.getQuantity()).isEqualTo(2);
+        assertThat(item.getCategory()).isEqualTo("Crèmerie");
+        assertThat(store.get("Pain")).isNull();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait remplacer un article à sa position")
+    void shouldReplaceItemInPlace(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+        store.put(new GroceryItem("Lait", 2, "Crèmerie"));
+        store.put(new GroceryItem("Pain", 1, "Boulangerie"));
+
+        store.put(new GroceryItem("Lait", 5, "Boissons"));
+
+        assertThat(names(store)).containsExactly("Lait", "Pain");
+        assertThat(store.get("Lait").getQuantity()).isEqualTo(5);
+        assertThat(store.get("Lait").getCategory()).isEqualTo("Boissons");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait supprimer un article et l'ajouter de nouveau en fin de liste")
+    void shouldRemoveAndAppendAgain(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+        store.put(new GroceryItem("Lait", 2, "Crèmerie"));
+        store.put(new GroceryItem("Pain", 1, "Boulangerie"));
+
+        assertThat(store.remove("Lait")).isTrue();
+        assertThat(store.remove("Lait")).isFalse();
+        store.put(new GroceryItem("Lait", 3, "Crèmerie"));
+
+        assertThat(names(store)).containsExactly("Pain", "Lait");
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait rester cohérent après de nombreuses suppressions")
+    void shouldStayConsistentAfterManyRemovals(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+        for (int i = 0; i < 5000; i++) {
+            store.put(new GroceryItem("Article" + i, i, "Catégorie" + (i % 5)));
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            if (i % 10 != 0) {
+                store.remove("Article" + i);
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(500);
+        List<GroceryItem> items = store.toList();
+        for (int i = 0; i < items.size(); i++) {
+            int expected = i * 10;
+            assertThat(items.get(i).getName()).isEqualTo("Article" + expected);
+            assertThat(store.get("Article" + expected).getQuantity()).isEqualTo(expected);
+            assertThat(store.get("Article" + expected).getCategory()).isEqualTo("Catégorie" + (expected % 5));
+        }
+        assertThat(store.get("Article1")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait vider le stockage")
+    void shouldClear(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+        store.put(new GroceryItem("Lait", 2, "Crèmerie"));
+
+        store.clear();
+        store.put(new GroceryItem("Pain", 1, "Boulangerie"));
+
+        assertThat(names(store)).containsExactly("Pain");
+        assertThat(store.get("Lait")).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"map", "columnar", "offheap"})
+    @DisplayName("Devrait oublier les catégories à chaque vidage, sur de nombreux rechargements")
+    void shouldForgetCategoriesOnClear(String type) {
+        ItemStore store = ItemStoreFactory.createItemStore(type);
+
+        // 40 000 catégories distinctes au total, au-delà de la capacité d'un dictionnaire jamais vidé
+        for (int reload = 0; reload < 40; reload++) {
+            store.clear();
+            for (int i = 0; i < 1000; i++) {
+                store.put(new GroceryItem("Article" + i, 1, "Catégorie" + reload + "-" + i));
+            }
+        }
+
+        assertThat(store.size()).isEqualTo(1000);
+        assertThat(store.get("Article7").getCategory()).isEqualTo("Catégorie39-7");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"hash", ""})
+    @DisplayName("Devrait rejeter un type de stockage inconnu")
+    void shouldRejectUnknownStore(String type) {
+        assertThatThrownBy(() -> ItemStoreFactory.createItemStore(type))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,281 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryManager;
+import com.fges.model.ItemChange;
+import com.fges.storage.FileLockManager;
+import com.fges.storage.JournalStorageManager;
+import com.fges.storage.StreamingJsonStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JournalStorageManagerTest {
+    private JournalStorageManager storageManager;
+    
+    @TempDir
+    Path tempDir;
+    private Path listFile;
+    private Path journalFile;
+
+    @BeforeEach
+    void setUp() {
+        storageManager = new JournalStorageManager(new StreamingJsonStorageManager(), Long.MAX_VALUE);
+        listFile = tempDir.resolve("groceries.json");
+        journalFile = tempDir.resolve("groceries.json.journal");
+    }
+
+    @Test
+    @DisplayName("Devrait rejouer le journal après l'instantané")
+    void shouldReplayJournalOverSnapshot() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie")),
+                ItemChange.upsert(new GroceryItem("Pommes", 5, "Fruits"))), listFile.toString());
+        storageManager.appendChanges(List.of(ItemChange.removal("Lait")), listFile.toString());
+        
+        List<GroceryItem> loaded = storageManager.loadGroceryList(listFile.toString());
+        
+        assertThat(loaded).extracting(GroceryItem::toString).containsExactly("Pommes: 5");
+    }
+
+    @Test
+    @DisplayName("Devrait n'ajouter que les modifications lors d'une sauvegarde depuis le gestionnaire")
+    void shouldOnlyAppendChangesWhenSavingFromManager() throws Exception {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        String snapshot = Files.readString(listFile);
+        
+        GroceryManager groceryManager = new GroceryManager(storageManager);
+        groceryManager.loadGroceryList(listFile.toString());
+        groceryManager.addItem("Carottes", 2, "Légumes");
+        groceryManager.saveGroceryList(listFile.toString());
+        
+        assertThat(Files.readString(listFile)).isEqualTo(snapshot);
+        assertThat(Files.readAllLines(journalFile)).hasSize(1);
+        
+        GroceryManager reloaded = new GroceryManager(storageManager);
+        reloaded.loadGroceryList(listFile.toString());
+        assertThat(reloaded.getItemQuantity("Carottes")).isEqualTo(2);
+        assertThat(reloaded.getItemQuantity("Pommes")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Devrait intégrer le journal à l'instantané lors de la compaction")
+    void shouldFoldJournalIntoSnapshotWhenCompacting() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        
+        storageManager.compact(listFile.toString());
+        
+        assertThat(journalFile).doesNotExist();
+        assertThat(new StreamingJsonStorageManager().loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pommes: 3", "Lait: 1");
+    }
+
+    @Test
+    @DisplayName("Ne devrait pas abandonner la compaction d'une liste pour la sauvegarde d'une autre")
+    void shouldKeepCompactionWhenAnotherListIsSaved() throws IOException {
+        Path otherFile = tempDir.resolve("other.json");
+        JournalStorageManager[] manager = new JournalStorageManager[1];
+        // Sauvegarde complète d'une autre liste pendant l'écriture de l'instantané compacté
+        manager[0] = new JournalStorageManager(new StreamingJsonStorageManager() {
+            @Override
+            public void saveGroceryList(Collection<GroceryItem> items, String fileName) throws IOException {
+                super.saveGroceryList(items, fileName);
+                if (fileName.endsWith(".compact")) {
+                    manager[0].saveGroceryList(List.of(new GroceryItem("Pain", 1, "Boulangerie")),
+                            otherFile.toString());
+                }
+            }
+        }, Long.MAX_VALUE);
+        manager[0].saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        manager[0].appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+
+        manager[0].compact(listFile.toString());
+
+        assertThat(journalFile).doesNotExist();
+        assertThat(manager[0].loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pommes: 3", "Lait: 1");
+    }
+
+    @Test
+    @DisplayName("Devrait attendre le verrou exclusif du fichier avant de compacter")
+    void shouldWaitForFileLockBeforeCompacting() throws Exception {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> compaction;
+            try (FileLockManager.ListLock ignored = FileLockManager.acquireExclusive(listFile.toString(), 0)) {
+                compaction = executor.submit(() -> {
+                    storageManager.compact(listFile.toString());
+                    return null;
+                });
+                Thread.sleep(200);
+                assertThat(compaction).isNotDone();
+                assertThat(journalFile).exists();
+            }
+            compaction.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(journalFile).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Devrait ignorer un enregistrement tronqué en fin de journal")
+    void shouldIgnoreTornRecordAtEndOfJournal() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        Files.writeString(journalFile, "{\"op\":\"put\",\"na", StandardOpenOption.APPEND);
+        
+        assertThat(storageManager.loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pommes: 3", "Lait: 1");
+        
+        // Les ajouts suivants restent lisibles
+        storageManager.appendChanges(List.of(ItemChange.removal("Pommes")), listFile.toString());
+        assertThat(storageManager.loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Lait: 1");
+    }
+
+    @Test
+    @DisplayName("Devrait refuser un journal corrompu en son milieu sans le modifier")
+    void shouldRejectJournalCorruptedInTheMiddle() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        Files.writeString(journalFile, "{\"op\":\"put\",\"na\n", StandardOpenOption.APPEND);
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Pain", 2, "Boulangerie"))), listFile.toString());
+        byte[] journal = Files.readAllBytes(journalFile);
+
+        assertThatThrownBy(() -> storageManager.loadGroceryList(listFile.toString()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Journal corrompu");
+        assertThat(Files.readAllBytes(journalFile)).isEqualTo(journal);
+    }
+
+    @Test
+    @DisplayName("Devrait refuser un journal contenant autre chose que des enregistrements")
+    void shouldRejectJournalWithGarbage() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        Files.writeString(journalFile, "n'importe quoi\n{\"op\":\"remove\",\"name\":\"Pommes\"}\n");
+
+        assertThatThrownBy(() -> storageManager.loadGroceryList(listFile.toString()))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("Devrait remplacer instantané et journal lors d'une sauvegarde complète")
+    void shouldReplaceSnapshotAndJournalOnFullSave() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pain", 2, "Boulangerie")), listFile.toString());
+
+        assertThat(journalFile).doesNotExist();
+        assertThat(tempDir.resolve("groceries.json.save")).doesNotExist();
+        assertThat(tempDir.resolve("groceries.json.journal.old")).doesNotExist();
+        assertThat(storageManager.loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pain: 2");
+    }
+
+    @Test
+    @DisplayName("Devrait terminer une sauvegarde complète interrompue après la mise de côté du journal")
+    void shouldCompleteFullSaveInterruptedAfterRetiringJournal() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        // Arrêt brutal entre la mise de côté du journal et le remplacement de l'instantané
+        new StreamingJsonStorageManager().saveGroceryList(List.of(new GroceryItem("Pain", 2, "Boulangerie")),
+                tempDir.resolve("groceries.json.save").toString());
+        Files.move(journalFile, tempDir.resolve("groceries.json.journal.old"));
+
+        assertThat(storageManager.loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pain: 2");
+
+        // La réparation attend la prochaine écriture, sous le verrou exclusif
+        assertThat(tempDir.resolve("groceries.json.journal.old")).exists();
+        storageManager.appendChanges(List.of(ItemChange.removal("Pain")), listFile.toString());
+        assertThat(tempDir.resolve("groceries.json.journal.old")).doesNotExist();
+        assertThat(tempDir.resolve("groceries.json.save")).doesNotExist();
+        assertThat(storageManager.loadGroceryList(listFile.toString())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Devrait conserver instantané et journal si la sauvegarde complète s'est interrompue avant")
+    void shouldKeepSnapshotAndJournalWhenFullSaveInterruptedEarly() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        // Arrêt brutal pendant l'écriture du nouvel instantané
+        Files.writeString(tempDir.resolve("groceries.json.save"), "[{\"name\":\"Pa");
+
+        assertThat(storageManager.loadGroceryList(listFile.toString()))
+                .extracting(GroceryItem::toString)
+                .containsExactly("Pommes: 3", "Lait: 1");
+
+        storageManager.appendChanges(List.of(ItemChange.removal("Lait")), listFile.toString());
+        assertThat(tempDir.resolve("groceries.json.save")).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Ne devrait modifier aucun fichier lors d'un chargement, même concurrent")
+    void shouldNotModifyFilesWhenLoading() throws Exception {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), listFile.toString());
+        storageManager.appendChanges(List.of(
+                ItemChange.upsert(new GroceryItem("Lait", 1, "Crèmerie"))), listFile.toString());
+        new StreamingJsonStorageManager().saveGroceryList(List.of(new GroceryItem("Pain", 2, "Boulangerie")),
+                tempDir.resolve("groceries.json.save").toString());
+        Files.move(journalFile, tempDir.resolve("groceries.json.journal.old"));
+        Files.writeString(journalFile, "{\"op\":\"put\",\"na");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<GroceryItem>>> loads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                loads.add(executor.submit(() -> storageManager.loadGroceryList(listFile.toString())));
+            }
+            for (Future<List<GroceryItem>> load : loads) {
+                assertThat(load.get(5, TimeUnit.SECONDS)).extracting(GroceryItem::toString).containsExactly("Pain: 2");
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(tempDir.resolve("groceries.json.save")).exists();
+        assertThat(tempDir.resolve("groceries.json.journal.old")).exists();
+        assertThat(journalFile).hasContent("{\"op\":\"put\",\"na");
+    }
+}
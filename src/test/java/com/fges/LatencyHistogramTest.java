@@ -0,0 +1,59 @@
+package com.fges;
+
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.MetricsRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+    private LatencyHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new MetricsRegistry().histogram("latency_seconds", "Durée");
+    }
+
+    @Test
+    @DisplayName("Devrait estimer les centiles à moins de 12,5 % près")
+    void shouldEstimateQuantilesWithBoundedError() {
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        assertThat(histogram.count()).isEqualTo(100_000);
+        assertThat((double) histogram.quantileNanos(0.5)).isCloseTo(50_000_000, within(50_000_000 * 0.125));
+        assertThat((double) histogram.quantileNanos(0.99)).isCloseTo(99_000_000, within(99_000_000 * 0.125));
+        assertThat(histogram.quantileNanos(1.0)).isEqualTo(100_000_000);
+        assertThat(histogram.maxNanos()).isEqualTo(100_000_000);
+    }
+
+    @Test
+    @DisplayName("Devrait conserver les petites valeurs exactement")
+    void shouldKeepSmallValuesExact() {
+        histogram.record(3);
+        histogram.record(5);
+        histogram.record(-10);
+
+        assertThat(histogram.quantileNanos(0)).isZero();
+        assertThat(histogram.quantileNanos(0.5)).isEqualTo(3);
+        assertThat(histogram.quantileNanos(1.0)).isEqualTo(5);
+        assertThat(histogram.sumNanos()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Devrait gérer les très grandes durées et un histogramme vide")
+    void shouldHandleExtremeValues() {
+        assertThat(histogram.quantileNanos(0.99)).isZero();
+
+        histogram.record(Long.MAX_VALUE);
+
+        assertThat(histogram.quantileNanos(0.99)).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> histogram.quantileNanos(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -96,4 +97,32 @@ class ListCommandTest {
         assertThat(result).doesNotContain("Légumes");
         assertThat(result).doesNotContain("Carottes: 2");
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Devrait écrire la liste dans la sortie fournie, catégorie par catégorie")
+    void shouldStreamItemsGroupedByCategory() throws Exception {
+        groceryManager.addItem("Pommes", 3, "Fruits");
+        groceryManager.addItem("Carottes", 2, "Légumes");
+        groceryManager.addItem("Bananes", 4, "Fruits");
+        groceryManager.removeItem("Carottes");
+        
+        StringWriter out = new StringWriter();
+        listCommand.execute(new ArrayList<>(), groceryManager, new CommandOptions.Builder().build(), out);
+        
+        assertThat(out.toString())
+                .isEqualTo(listCommand.execute(new ArrayList<>(), groceryManager, new CommandOptions.Builder().build()))
+                .contains("Pommes: 3\nBananes: 4\n")
+                .doesNotContain("Légumes");
+    }
+
+    @Test
+    @DisplayName("Devrait signaler une catégorie vide")
+    void shouldReportEmptyCategory() throws Exception {
+        groceryManager.addItem("Pommes", 3, "Fruits");
+        
+        String result = listCommand.execute(new ArrayList<>(), groceryManager,
+                new CommandOptions.Builder().category("Légumes").build());
+        
+        assertThat(result).contains("Légumes").doesNotContain("Pommes");
+    }
+}
@@ -74,7 +74,7 @@ class MessageFormatterTest {
         @DisplayName("Devrait formater un message pour un format de stockage invalide")
         void shouldFormatInvalidStorageFormatMessage() {
             String message = MessageFormatter.formatInvalidStorageFormat();
-            assertEquals("Format de stockage non supporté. Utilisez 'json' ou 'csv'.", message);
+            assertEquals("Format de stockage non supporté. Utilisez 'json', 'csv', 'journal' ou 'bin'.", message);
         }
 
         @Test
@@ -0,0 +1,83 @@
+package com.fges;
+
+import com.fges.metrics.Counter;
+import com.fges.metrics.LatencyHistogram;
+import com.fges.metrics.MetricsRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+    private MetricsRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+    }
+
+    @Test
+    @DisplayName("Devrait renvoyer la même métrique pour le même nom et la même étiquette")
+    void shouldReuseSameSeries() {
+        Counter first = registry.counter("requests_total", "Requêtes", "command", "add");
+        Counter second = registry.counter("requests_total", "Requêtes", "command", "add");
+        Counter other = registry.counter("requests_total", "Requêtes", "command", "remove");
+
+        first.increment();
+        second.add(2);
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.get()).isEqualTo(3);
+        assertThat(other.get()).isZero();
+    }
+
+    @Test
+    @DisplayName("Devrait refuser une métrique existante avec un autre type")
+    void shouldRejectConflictingType() {
+        registry.counter("operations", "Opérations");
+
+        assertThatThrownBy(() -> registry.histogram("operations", "Opérations"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Devrait écrire les métriques au format texte de Prometheus")
+    void shouldWritePrometheusText() throws Exception {
+        registry.counter("grocery_errors_total", "Erreurs", "command", "a\"b").add(4);
+        AtomicLong pending = new AtomicLong(7);
+        registry.gauge("grocery_pending", "En attente", null, null, pending::get);
+        LatencyHistogram latency = registry.histogram("grocery_duration_seconds", "Durée", "operation", "add");
+        latency.record(2_000_000);
+
+        StringWriter out = new StringWriter();
+        registry.writePrometheus(out);
+
+        assertThat(out.toString()).contains(
+                "# HELP grocery_errors_total Erreurs\n# TYPE grocery_errors_total counter\n"
+                        + "grocery_errors_total{command=\"a\\\"b\"} 4\n",
+                "# TYPE grocery_pending gauge\ngrocery_pending 7\n",
+                "# TYPE grocery_duration_seconds summary\n",
+                "grocery_duration_seconds{operation=\"add\",quantile=\"0.5\"} 0.002\n",
+                "grocery_duration_seconds_sum{operation=\"add\"} 0.002\n",
+                "grocery_duration_seconds_count{operation=\"add\"} 1\n");
+    }
+
+    @Test
+    @DisplayName("Devrait lire la valeur courante d'une jauge à chaque exportation")
+    void shouldReadGaugeAtEachExport() throws Exception {
+        AtomicLong value = new AtomicLong(1);
+        registry.gauge("grocery_value", "Valeur", null, null, value::get);
+        value.set(42);
+
+        StringWriter out = new StringWriter();
+        registry.writePrometheus(out);
+
+        assertThat(out.toString()).contains("grocery_value 42\n");
+    }
+}
@@ -0,0 +1,42 @@
+package com.fges;
+
+import com.fges.metrics.MetricsRegistry;
+import com.fges.metrics.MetricsServer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsServerTest {
+
+    @Test
+    @DisplayName("Devrait exposer le registre sur /metrics et refuser les autres méthodes")
+    void shouldServeMetricsOverHttp() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("grocery_test_total", "Test").add(5);
+
+        try (MetricsServer server = new MetricsServer(0, registry, Executors.newSingleThreadExecutor())) {
+            HttpClient client = HttpClient.newHttpClient();
+            URI uri = URI.create("http://localhost:" + server.getPort() + MetricsServer.PATH);
+
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> rejected = client.send(
+                    HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+                    type -> assertThat(type).startsWith("text/plain; version=0.0.4"));
+            assertThat(response.body()).contains("grocery_test_total 5\n");
+            assertThat(rejected.statusCode()).isEqualTo(405);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.fges;
+
+import com.fges.commands.StatsCommand;
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryManager;
+import com.fges.storage.JsonStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatsCommandTest {
+    private StatsCommand statsCommand;
+    private GroceryManager groceryManager;
+    
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        statsCommand = new StatsCommand();
+        groceryManager = new GroceryManager(new JsonStorageManager());
+        File testFile = tempDir.resolve("test_grocery_list.json").toFile();
+        TestUtils.createEmptyJsonFile(testFile);
+        groceryManager.loadGroceryList(testFile.getPath());
+    }
+
+    @Test
+    @DisplayName("Devrait retourner un message pour une liste vide")
+    void shouldReturnMessageForEmptyList() throws Exception {
+        String result = statsCommand.execute(new ArrayList<>(), groceryManager, new CommandOptions.Builder().build());
+        
+        assertThat(result).contains("La liste de courses est vide");
+    }
+
+    @Test
+    @DisplayName("Devrait afficher les agrégats de chaque catégorie et le total")
+    void shouldDisplayAggregatesByCategory() throws Exception {
+        groceryManager.addItem("Pommes", 3, "Fruits");
+        groceryManager.addItem("Bananes", 4, "Fruits");
+        groceryManager.addItem("Carottes", 2, "Légumes");
+        
+        String result = statsCommand.execute(new ArrayList<>(), groceryManager, new CommandOptions.Builder().build());
+        
+        assertThat(result.split("\n")).containsExactly(
+                "# Fruits: 2 article(s), quantité totale 7",
+                "# Légumes: 1 article(s), quantité totale 2",
+                "Total : 3 article(s), quantité totale 9");
+    }
+
+    @Test
+    @DisplayName("Devrait afficher les agrégats d'une seule catégorie")
+    void shouldDisplayAggregatesOfOneCategory() throws Exception {
+        groceryManager.addItem("Pommes", 3, "Fruits");
+        groceryManager.addItem("Carottes", 2, "Légumes");
+        
+        String fruits = statsCommand.execute(new ArrayList<>(), groceryManager,
+                new CommandOptions.Builder().category("Fruits").build());
+        String meat = statsCommand.execute(new ArrayList<>(), groceryManager,
+                new CommandOptions.Builder().category("Viande").build());
+        
+        assertThat(fruits).isEqualTo("# Fruits: 1 article(s), quantité totale 3");
+        assertThat(meat).contains("Aucun article dans la catégorie");
+    }
+}
@@ -0,0 +1,112 @@
+package com.fges;
+
+import com.fges.model.GroceryItem;
+import com.fges.storage.JsonStorageManager;
+import com.fges.storage.StreamingJsonStorageManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingJsonStorageManagerTest {
+    private StreamingJsonStorageManager storageManager;
+    
+    @TempDir
+    Path tempDir;
+    private File testFile;
+
+    @BeforeEach
+    void setUp() {
+        storageManager = new StreamingJsonStorageManager();
+        testFile = tempDir.resolve("test_grocery_list.json").toFile();
+    }
+
+    @Test
+    @DisplayName("Devrait sauvegarder puis recharger les articles avec leurs catégories")
+    void shouldSaveAndLoadItemsWithCategories() throws IOException {
+        List<GroceryItem> items = List.of(
+                new GroceryItem("Pommes", 3, "Fruits"),
+                new GroceryItem("Lait", 1, "default"));
+        
+        storageManager.saveGroceryList(items, testFile.getPath());
+        List<GroceryItem> loaded = storageManager.loadGroceryList(testFile.getPath());
+        
+        assertThat(loaded).extracting(GroceryItem::getName).containsExactly("Pommes", "Lait");
+        assertThat(loaded).extracting(GroceryItem::getQuantity).containsExactly(3, 1);
+        assertThat(loaded).extracting(GroceryItem::getCategory).containsExactly("Fruits", "default");
+    }
+
+    @Test
+    @DisplayName("Devrait écrire une sortie compacte par défaut")
+    void shouldWriteCompactOutputByDefault() throws IOException {
+        storageManager.saveGroceryList(List.of(new GroceryItem("Pommes", 3, "Fruits")), testFile.getPath());
+        
+        assertThat(Files.readString(testFile.toPath()))
+                .isEqualTo("[{\"name\":\"Pommes\",\"quantity\":3,\"category\":\"Fruits\"}]");
+    }
+
+    @Test
+    @DisplayName("Devrait lire l'ancien format nom vers quantité")
+    void shouldLoadLegacyFormat() throws IOException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("{\"Pommes\": 3, \"Lait\": 1}");
+        }
+        
+        List<GroceryItem> loaded = storageManager.loadGroceryList(testFile.getPath());
+        
+        assertThat(loaded).extracting(GroceryItem::toString).containsExactly("Pommes: 3", "Lait: 1");
+        assertThat(loaded).allMatch(item -> "default".equals(item.getCategory()));
+    }
+
+    @Test
+    @DisplayName("Devrait ignorer les valeurs imbriquées de l'ancien format")
+    void shouldSkipNestedValuesInLegacyFormat() throws IOException {
+        try (FileWriter writer = new FileWriter(testFile)) {
+            writer.write("{\"Pommes\": 3, \"meta\": {\"Sel\": 9, \"tags\": [1, 2]}, \"Lait\": 1}");
+        }
+
+        List<GroceryItem> loaded = storageManager.loadGroceryList(testFile.getPath());
+
+        assertThat(loaded).extracting(GroceryItem::toString).containsExactly("Pommes: 3", "Lait: 1");
+    }
+
+    @Test
+    @DisplayName("Devrait relire un fichier écrit par JsonStorageManager")
+    void shouldLoadFileWrittenByGsonStorage() throws IOException {
+        new JsonStorageManager().saveGroceryList(
+                List.of(new GroceryItem("Carottes", 2, "Légumes")), testFile.getPath());
+        
+        List<GroceryItem> loaded = storageManager.loadGroceryList(testFile.getPath());
+        
+        assertThat(loaded).extracting(GroceryItem::toString).containsExactly("Carottes: 2");
+        assertThat(loaded.get(0).getCategory()).isEqualTo("Légumes");
+    }
+
+    @Test
+    @DisplayName("Devrait retourner une liste vide pour un fichier vide")
+    void shouldReturnEmptyListForEmptyFile() throws IOException {
+        Files.writeString(testFile.toPath(), "");
+        
+        assertThat(storageManager.loadGroceryList(testFile.getPath())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Devrait signaler un fichier corrompu")
+    void shouldRejectCorruptedFile() throws IOException {
+        Files.writeString(testFile.toPath(), "[{\"name\":\"Pommes\",");
+        
+        assertThatThrownBy(() -> storageManager.loadGroceryList(testFile.getPath()))
+                .isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,199 @@
+package com.fges;
+
+import com.fges.model.CommandOptions;
+import com.fges.model.GroceryItem;
+import com.fges.model.GroceryManager;
+import com.fges.storage.JsonStorageManager;
+import com.fges.web.SynchronizedGroceryShop;
+
+import fr.anthonyquere.MyGroceryShop.WebGroceryItem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SynchronizedGroceryShopTest {
+    private GroceryManager groceryManager;
+    private SynchronizedGroceryShop shop;
+
+    @BeforeEach
+    void setUp() {
+        groceryManager = new GroceryManager(new JsonStorageManager());
+        shop = new SynchronizedGroceryShop(groceryManager);
+    }
+
+    @Test
+    @DisplayName("Devrait cumuler les quantités d'un article existant")
+    void shouldAccumulateQuantityOfExistingItem() {
+        shop.addGroceryItem("Pommes", 3, "Fruits");
+        shop.addGroceryItem("Pommes", 2, null);
+        
+        assertThat(shop.getGroceries()).containsExactly(new WebGroceryItem("Pommes", 5, "Fruits"));
+        assertThat(groceryManager.getItemQuantity("Pommes")).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Devrait supprimer un article du magasin et du gestionnaire")
+    void shouldRemoveItemFromShopAndManager() {
+        shop.addGroceryItem("Pommes", 3, "Fruits");
+        
+        shop.removeGroceryItem("Pommes");
+        
+        assertThat(shop.getGroceries()).isEmpty();
+        assertThat(groceryManager.doesItemExist("Pommes")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Devrait rester cohérent sous des modifications concurrentes")
+    void shouldStayConsistentUnderConcurrentUpdates() throws Exception {
+        int threads = 8;
+        int additionsPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < additionsPerThread; i++) {
+                    shop.addGroceryItem("Commun", 1, "default");
+                    shop.addGroceryItem("Article-" + thread + "-" + i, 1, "default");
+                    shop.getGroceries();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        assertThat(shop.getGroceries()).hasSize(threads * additionsPerThread + 1);
+        assertThat(groceryManager.getItemQuantity("Commun")).isEqualTo(threads * additionsPerThread);
+        assertThat(groceryManager.getItems()).hasSize(threads * additionsPerThread + 1);
+    }
+
+    @Test
+    @DisplayName("Devrait renvoyer une version de la liste que les modifications suivantes ne changent pas")
+    void shouldReturnSnapshotIsolatedFromLaterWrites() {
+        shop.addGroceryItem("Pommes", 3, "Fruits");
+        shop.addGroceryItem("Carottes", 2, "Légumes");
+        
+        List<WebGroceryItem> before = shop.getGroceries();
+        shop.addGroceryItem("Bananes", 1, "Fruits");
+        shop.removeGroceryItem("Pommes");
+        
+        assertThat(before).containsExactly(
+                new WebGroceryItem("Carottes", 2, "Légumes"),
+                new WebGroceryItem("Pommes", 3, "Fruits"));
+        assertThat(shop.getGroceries()).containsExactly(
+                new WebGroceryItem("Bananes", 1, "Fruits"),
+                new WebGroceryItem("Carottes", 2, "Légumes"));
+        assertThat(shop.getGroceries()).isSameAs(shop.getGroceries());
+    }
+
+    @Test
+    @DisplayName("Devrait garder la liste triée et complète après de nombreux ajouts et suppressions")
+    void shouldKeepSortedListAfterManyWrites() {
+        for (int i = 0; i < 500; i++) {
+            shop.addGroceryItem(String.format("Article%03d", (i * 7) % 500), 1, null);
+        }
+        for (int i = 0; i < 500; i += 2) {
+            shop.removeGroceryItem(String.format("Article%03d", i));
+        }
+        
+        List<WebGroceryItem> groceries = shop.getGroceries();
+        assertThat(groceries).hasSize(250);
+        for (int i = 0; i < groceries.size(); i++) {
+            assertThat(groceries.get(i).name()).isEqualTo(String.format("Article%03d", 2 * i + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Devrait reprendre tels quels les articles du gestionnaire, même avec ':' dans le nom")
+    void shouldInitializeFromTypedItems() throws Exception {
+        groceryManager.addItem("Thé: vert", 2, "Boissons");
+        groceryManager.addItem("Pommes", 3, "");
+
+        SynchronizedGroceryShop initializedShop = new SynchronizedGroceryShop(groceryManager);
+
+        assertThat(initializedShop.getGroceries()).containsExactly(
+                new WebGroceryItem("Pommes", 3, "default"),
+                new WebGroceryItem("Thé: vert", 2, "Boissons"));
+    }
+
+    @Test
+    @DisplayName("Devrait reconstruire la liste après une modification du gestionnaire hors du magasin")
+    void shouldRebuildAfterChangeOutsideShop() throws Exception {
+        shop.addGroceryItem("Pommes", 3, "Fruits");
+        groceryManager.addItem("Lait", 1, "Crèmerie");
+
+        assertThat(shop.getGroceries()).containsExactly(
+                new WebGroceryItem("Lait", 1, "Crèmerie"),
+                new WebGroceryItem("Pommes", 3, "Fruits"));
+
+        groceryManager.removeItem("Pommes");
+        shop.addGroceryItem("Beurre", 1, "Crèmerie");
+
+        assertThat(shop.getGroceries()).containsExactly(
+                new WebGroceryItem("Beurre", 1, "Crèmerie"),
+                new WebGroceryItem("Lait", 1, "Crèmerie"));
+    }
+
+    @Test
+    @DisplayName("Ne devrait pas écraser un ajout fait par une autre commande pendant que le serveur tourne")
+    void shouldKeepItemAddedByAnotherProcess(@TempDir Path tempDir) throws Exception {
+        String file = tempDir.resolve("courses.json").toString();
+        new JsonStorageManager().saveGroceryList(List.of(), file);
+        groceryManager.loadGroceryList(file);
+        CommandOptions options = new CommandOptions.Builder().fileName(file).flushDelayMillis(60_000).build();
+        SynchronizedGroceryShop server = new SynchronizedGroceryShop(groceryManager, options);
+
+        // Commande ponctuelle, par exemple planifiée, entre le chargement et la sauvegarde du serveur
+        GroceryManager cron = new GroceryManager(new JsonStorageManager());
+        cron.loadGroceryList(file);
+        cron.addItem("Pain", 1, "Boulangerie");
+        cron.saveGroceryList(file);
+
+        server.addGroceryItem("Lait", 2, "Crèmerie");
+        server.close();
+
+        assertThat(new JsonStorageManager().loadGroceryList(file))
+                .extracting(GroceryItem::getName).containsExactlyInAnyOrder("Pain", "Lait");
+        assertThat(server.getGroceries()).containsExactly(
+                new WebGroceryItem("Lait", 2, "Crèmerie"),
+                new WebGroceryItem("Pain", 1, "Boulangerie"));
+    }
+
+    @Test
+    @DisplayName("Devrait refuser une modification après la fermeture sans toucher à la liste")
+    void shouldRejectModificationAfterClose(@TempDir Path tempDir) throws Exception {
+        String file = tempDir.resolve("courses.json").toString();
+        new JsonStorageManager().saveGroceryList(List.of(), file);
+        groceryManager.loadGroceryList(file);
+        CommandOptions options = new CommandOptions.Builder().fileName(file).flushDelayMillis(60_000).build();
+        SynchronizedGroceryShop server = new SynchronizedGroceryShop(groceryManager, options);
+        server.addGroceryItem("Lait", 1, "Crèmerie");
+        server.close();
+
+        server.addGroceryItem("Pain", 1, "Boulangerie");
+        server.removeGroceryItem("Lait");
+
+        assertThat(server.getGroceries()).containsExactly(new WebGroceryItem("Lait", 1, "Crèmerie"));
+        assertThat(new JsonStorageManager().loadGroceryList(file))
+                .extracting(GroceryItem::getName).containsExactly("Lait");
+    }
+}
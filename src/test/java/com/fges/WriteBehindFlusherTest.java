@@ -0,0 +1,84 @@
+package com.fges;
+
+import com.fges.storage.WriteBehindFlusher;
+import com.fges.util.ThreadModel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindFlusherTest {
+
+    @Test
+    @DisplayName("Devrait regrouper les modifications en une seule sauvegarde à la fermeture")
+    void shouldCoalesceModificationsIntoOneSaveOnClose() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(saves::incrementAndGet, 60_000, 1_000);
+        
+        for (int i = 0; i < 10; i++) {
+            flusher.markDirty();
+        }
+        assertThat(saves.get()).isZero();
+        
+        flusher.close();
+        
+        assertThat(saves.get()).isEqualTo(1);
+        assertThat(flusher.getFlushCount()).isEqualTo(1);
+        assertThat(flusher.getCoalescedWriteCount()).isEqualTo(9);
+        assertThat(flusher.getPendingOperations()).isZero();
+    }
+
+    @Test
+    @DisplayName("Devrait sauvegarder dès que le seuil de modifications est atteint")
+    void shouldSaveWhenPendingThresholdIsReached() throws Exception {
+        AtomicInteger saves = new AtomicInteger();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(saves::incrementAndGet, 60_000, 3);
+        
+        flusher.markDirty();
+        flusher.markDirty();
+        flusher.markDirty();
+        
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (saves.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(saves.get()).isEqualTo(1);
+        
+        flusher.close();
+        assertThat(saves.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Devrait refuser les modifications après la fermeture")
+    void shouldRejectModificationsAfterClose() throws Exception {
+        WriteBehindFlusher flusher = new WriteBehindFlusher(() -> { }, 10, 10);
+        flusher.close();
+        
+        assertThatThrownBy(flusher::markDirty).isInstanceOf(IllegalStateException.class);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ThreadModel.class)
+    @DisplayName("Devrait sauvegarder sur un thread du modèle choisi")
+    void shouldSaveOnThreadOfChosenModel(ThreadModel threadModel) throws Exception {
+        AtomicReference<String> saveThread = new AtomicReference<>();
+        WriteBehindFlusher flusher = new WriteBehindFlusher(
+                () -> saveThread.set(Thread.currentThread().getName()), 0, 1, threadModel.threadFactory("test-flusher"));
+        
+        flusher.markDirty();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (saveThread.get() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        flusher.close();
+        
+        assertThat(saveThread.get()).startsWith("test-flusher-");
+    }
+}